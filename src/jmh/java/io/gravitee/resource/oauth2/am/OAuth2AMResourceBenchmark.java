@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.gravitee.el.TemplateEngine;
+import io.gravitee.node.api.Node;
+import io.gravitee.plugin.configurations.http.HttpClientOptions;
+import io.gravitee.plugin.configurations.http.HttpProxyOptions;
+import io.gravitee.plugin.configurations.http.ProtocolVersion;
+import io.gravitee.plugin.configurations.ssl.SslOptions;
+import io.gravitee.resource.api.AbstractConfigurableResource;
+import io.gravitee.resource.oauth2.am.configuration.OAuth2ResourceConfiguration;
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.rxjava3.core.Vertx;
+import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Throughput and latency of {@link OAuth2AMResource#introspect} and {@link OAuth2AMResource#userInfo} against an in-process stub
+ * of AM, for both response formats, several payload sizes, with or without the caches, and over HTTP/1.1 or HTTP/2.
+ *
+ * Run with <code>-prof gc</code> to get the allocation rate per call (<code>gc.alloc.rate.norm</code>), and with several threads
+ * (<code>-t 32</code>) to compare how the protocols carry concurrent calls over the same number of connections.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OAuth2AMResourceBenchmark {
+
+    private static final String ACCESS_TOKEN = "xxxx-xxxx-xxxx-xxxx";
+
+    @Param({ "V1_X", "V2_X" })
+    public OAuth2ResourceConfiguration.Version version;
+
+    @Param({ "256", "4096", "65536" })
+    public int payloadSize;
+
+    @Param({ "false", "true" })
+    public boolean cache;
+
+    /**
+     * HTTP/2 is spoken in clear text with prior knowledge, the stub of AM accepting h2c.
+     */
+    @Param({ "HTTP_1_1", "HTTP_2" })
+    public ProtocolVersion protocol;
+
+    /**
+     * Size of the connection pool: <code>http.maxConcurrentConnections</code> with HTTP/1.1, <code>http2.maxConnections</code> with
+     * HTTP/2.
+     */
+    @Param({ "1", "4" })
+    public int connections;
+
+    private Vertx vertx;
+
+    private HttpServer server;
+
+    private OAuth2AMResource resource;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+
+        final String payload = payload(payloadSize);
+        server =
+            vertx
+                .getDelegate()
+                .createHttpServer()
+                .requestHandler(request -> request.body().onSuccess(body -> respond(request, payload)))
+                .listen(0)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+
+        OAuth2ResourceConfiguration configuration = new OAuth2ResourceConfiguration();
+        configuration.setVersion(version);
+        configuration.setSecurityDomain("domain");
+        configuration.setServerURL("http://localhost:" + server.actualPort());
+        configuration.setClientId("client");
+        configuration.setClientSecret("secret");
+        configuration.setHttpClientOptions(httpClientOptions());
+        configuration.setHttpProxyOptions(new HttpProxyOptions());
+        configuration.setSslOptions(new SslOptions());
+        configuration.getIntrospectionCacheOptions().setEnabled(cache);
+        configuration.getUserInfoCacheOptions().setEnabled(cache);
+        if (protocol == ProtocolVersion.HTTP_2) {
+            configuration.getHttp2Options().setMaxConnections(connections);
+        }
+
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+        when(applicationContext.getBean(Node.class)).thenReturn(mock(Node.class));
+
+        resource = new OAuth2AMResource();
+        resource.setDeploymentContext(new TestDeploymentContext(TemplateEngine.templateEngine()));
+        resource.setApplicationContext(applicationContext);
+
+        Field configurationField = AbstractConfigurableResource.class.getDeclaredField("configuration");
+        configurationField.setAccessible(true);
+        configurationField.set(resource, configuration);
+
+        resource.doStart();
+    }
+
+    private HttpClientOptions httpClientOptions() {
+        HttpClientOptions httpClientOptions = new HttpClientOptions();
+        httpClientOptions.setVersion(protocol);
+        if (protocol == ProtocolVersion.HTTP_2) {
+            httpClientOptions.setClearTextUpgrade(false);
+        } else {
+            httpClientOptions.setMaxConcurrentConnections(connections);
+        }
+        return httpClientOptions;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        resource.doStop();
+        server.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        vertx.close().blockingAwait();
+    }
+
+    @Benchmark
+    public OAuth2Response introspect() throws Exception {
+        CompletableFuture<OAuth2Response> response = new CompletableFuture<>();
+        resource.introspect(ACCESS_TOKEN, response::complete);
+        return response.get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public UserInfoResponse userInfo() throws Exception {
+        CompletableFuture<UserInfoResponse> response = new CompletableFuture<>();
+        resource.userInfo(ACCESS_TOKEN, response::complete);
+        return response.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void respond(HttpServerRequest request, String payload) {
+        request.response().putHeader("Content-Type", "application/json").end(payload);
+    }
+
+    /**
+     * @return an active introspection (or userinfo) payload, padded with a custom claim up to the given size.
+     */
+    private static String payload(int size) {
+        JsonObject payload = new JsonObject()
+            .put("active", true)
+            .put("client_id", "client")
+            .put("sub", "user")
+            .put("scope", "openid profile")
+            .put("exp", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + TimeUnit.DAYS.toSeconds(1))
+            .put("padding", "");
+        int padding = Math.max(0, size - payload.encode().length());
+        return payload.put("padding", "x".repeat(padding)).encode();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and replacements of the entries of a large {@link IntrospectionCache}, with the payloads kept on-heap or off-heap.
+ *
+ * Run with <code>-prof gc</code> to compare the time spent in GC (<code>gc.time</code>) while the cache holds a large live set.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-XX:MaxDirectMemorySize=2g" })
+public class CacheStorageBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean offHeap;
+
+    @Param({ "200000" })
+    public int entries;
+
+    @Param({ "2048" })
+    public int payloadSize;
+
+    private String[] tokens;
+
+    private String claims;
+
+    private IntrospectionCache cache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        OffHeapStore store = offHeap ? new OffHeapStore((int) Math.min(Integer.MAX_VALUE, entries * (payloadSize + 64L))) : null;
+        cache = new IntrospectionCache(entries, 3600, 0, Ticker.systemTicker(), System::currentTimeMillis, store);
+        claims = "\", \"custom\": \"" + "x".repeat(Math.max(0, payloadSize - 50)) + "\"}";
+
+        tokens = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            tokens[i] = "token-" + i;
+            cache.put(tokens[i], new OAuth2Response(true, payload(i)), null);
+        }
+    }
+
+    @Benchmark
+    public OAuth2Response get() {
+        return cache.get(tokens[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+
+    @Benchmark
+    public void replace() {
+        int i = ThreadLocalRandom.current().nextInt(entries);
+        cache.put(tokens[i], new OAuth2Response(true, payload(i)), null);
+    }
+
+    private String payload(int i) {
+        return "{\"active\": true, \"sub\": \"" + i + claims;
+    }
+}
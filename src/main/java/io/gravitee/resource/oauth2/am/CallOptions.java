@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am;
+
+import io.gravitee.resource.oauth2.am.concurrent.Cancellation;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Options given by the caller of an introspection or a userinfo request.
+ *
+ * @author GraviteeSource Team
+ */
+@Getter
+@Builder
+public class CallOptions {
+
+    public static final CallOptions DEFAULT = CallOptions.builder().build();
+
+    /**
+     * Remaining time budget (in milliseconds) of the caller, typically what is left of the gateway request timeout. The call to AM
+     * never outlives it, and the caller is notified with an error once it is elapsed. <code>0</code> means no budget.
+     */
+    private final long timeout;
+
+    /**
+     * Identifier of the gateway request on behalf of which the call is made, sent to AM as <code>X-Gravitee-Request-Id</code> to
+     * correlate both sides. A random identifier is sent when it is <code>null</code>.
+     */
+    private final String requestId;
+
+    /**
+     * Cancelled once the result of the call is not needed anymore, typically when the client of the gateway request disconnected.
+     * The call to AM is then aborted, unless other callers are waiting for the same token, and the caller is not notified. The call
+     * can't be cancelled when it is <code>null</code>.
+     */
+    private final Cancellation cancellation;
+}
@@ -15,37 +15,112 @@
  */
 package io.gravitee.resource.oauth2.am;
 
-import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.common.utils.UUID;
 import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
 import io.gravitee.gateway.reactive.api.context.DeploymentContext;
 import io.gravitee.node.api.Node;
-import io.gravitee.node.api.configuration.Configuration;
+import io.gravitee.node.api.cache.CacheManager;
 import io.gravitee.node.api.utils.NodeUtils;
 import io.gravitee.node.container.spring.SpringEnvironmentConfiguration;
 import io.gravitee.node.vertx.client.http.VertxHttpClientFactory;
-import io.gravitee.node.vertx.proxy.VertxProxyOptionsUtils;
+import io.gravitee.node.vertx.client.http.VertxHttpClientOptions;
+import io.gravitee.node.vertx.client.http.VertxHttpProtocolVersion;
 import io.gravitee.plugin.mappers.HttpClientOptionsMapper;
 import io.gravitee.plugin.mappers.HttpProxyOptionsMapper;
 import io.gravitee.plugin.mappers.SslOptionsMapper;
+import io.gravitee.resource.oauth2.am.cache.InMemorySharedIntrospectionCache;
+import io.gravitee.resource.oauth2.am.cache.IntrospectionCache;
+import io.gravitee.resource.oauth2.am.cache.IntrospectionCacheSnapshot;
+import io.gravitee.resource.oauth2.am.cache.NodeSharedIntrospectionCache;
+import io.gravitee.resource.oauth2.am.cache.RevocationTombstones;
+import io.gravitee.resource.oauth2.am.cache.SharedIntrospectionCache;
+import io.gravitee.resource.oauth2.am.cache.SipHash;
+import io.gravitee.resource.oauth2.am.cache.TokenHasher;
+import io.gravitee.resource.oauth2.am.cache.UserInfoCache;
+import io.gravitee.resource.oauth2.am.circuitbreaker.CircuitBreaker;
+import io.gravitee.resource.oauth2.am.concurrent.AdaptiveConcurrencyLimiter;
+import io.gravitee.resource.oauth2.am.concurrent.Cancellation;
+import io.gravitee.resource.oauth2.am.concurrent.SingleFlight;
+import io.gravitee.resource.oauth2.am.configuration.CacheSnapshotOptions;
+import io.gravitee.resource.oauth2.am.configuration.ConcurrencyLimitOptions;
+import io.gravitee.resource.oauth2.am.configuration.EndpointOptions;
+import io.gravitee.resource.oauth2.am.configuration.HealthCheckOptions;
+import io.gravitee.resource.oauth2.am.configuration.HedgingOptions;
+import io.gravitee.resource.oauth2.am.configuration.Http2Options;
+import io.gravitee.resource.oauth2.am.configuration.LocalValidationOptions;
 import io.gravitee.resource.oauth2.am.configuration.OAuth2ResourceConfiguration;
 import io.gravitee.resource.oauth2.am.configuration.OAuth2ResourceConfigurationEvaluator;
+import io.gravitee.resource.oauth2.am.configuration.RevocationOptions;
+import io.gravitee.resource.oauth2.am.configuration.SharedCacheOptions;
+import io.gravitee.resource.oauth2.am.configuration.TimeoutOptions;
+import io.gravitee.resource.oauth2.am.configuration.WarmUpOptions;
+import io.gravitee.resource.oauth2.am.endpoint.ConnectionWarmer;
+import io.gravitee.resource.oauth2.am.endpoint.Endpoint;
+import io.gravitee.resource.oauth2.am.endpoint.EndpointGroup;
+import io.gravitee.resource.oauth2.am.endpoint.HealthChecker;
+import io.gravitee.resource.oauth2.am.http.CallRejectedException;
+import io.gravitee.resource.oauth2.am.http.HedgedRequest;
+import io.gravitee.resource.oauth2.am.http.HedgingPolicy;
+import io.gravitee.resource.oauth2.am.http.RequestCancelledException;
+import io.gravitee.resource.oauth2.am.http.RequestTimeout;
+import io.gravitee.resource.oauth2.am.http.UnexpectedResponseException;
+import io.gravitee.resource.oauth2.am.introspection.IntrospectionClaims;
+import io.gravitee.resource.oauth2.am.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.am.jwt.JwksProvider;
+import io.gravitee.resource.oauth2.am.jwt.JwtValidationResult;
+import io.gravitee.resource.oauth2.am.jwt.JwtValidator;
+import io.gravitee.resource.oauth2.am.metrics.AccessManagementMetrics;
+import io.gravitee.resource.oauth2.am.metrics.AccessManagementMetrics.Operation;
+import io.gravitee.resource.oauth2.am.metrics.AccessManagementMetrics.Outcome;
+import io.gravitee.resource.oauth2.am.revocation.PollingRevocationSource;
+import io.gravitee.resource.oauth2.am.revocation.RevocationEvent;
+import io.gravitee.resource.oauth2.am.revocation.RevocationSource;
+import io.gravitee.resource.oauth2.am.revocation.WebhookRevocationSource;
 import io.gravitee.resource.oauth2.api.OAuth2Resource;
-import io.gravitee.resource.oauth2.api.OAuth2ResourceException;
 import io.gravitee.resource.oauth2.api.OAuth2ResourceMetadata;
 import io.gravitee.resource.oauth2.api.OAuth2Response;
 import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
-import io.vertx.core.AsyncResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
+import io.vertx.core.http.impl.HttpClientInternal;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
+import io.vertx.micrometer.backends.BackendRegistries;
+import io.vertx.micrometer.backends.NoopBackendRegistry;
 import io.vertx.rxjava3.core.Vertx;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import javax.inject.Inject;
+import lombok.AccessLevel;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,20 +148,77 @@ public class OAuth2AMResource extends OAuth2Resource<OAuth2ResourceConfiguration
     private static final String USERINFO_ENDPOINT = "/userinfo";
     private static final String USERINFO_ENDPOINT_V2 = "/oidc/userinfo";
 
+    private static final String JWKS_ENDPOINT = "/oidc/.well-known/jwks.json";
+    private static final String JWT_TYPE = "JWT";
+    private static final String OPENID_CONFIGURATION_ENDPOINT = "/oidc/.well-known/openid-configuration";
+
     private static final String INTROSPECTION_ACTIVE_INDICATOR = "active";
+    private static final String INTROSPECTION_EXPIRATION_CLAIM = "exp";
+    private static final String INTROSPECTION_CLIENT_ID_CLAIM = "client_id";
+    private static final String AUDIENCE_CLAIM = "aud";
+
+    private static final String INVALID_ACCESS_TOKEN_PAYLOAD = "{\"error\": \"Invalid Access Token\"}";
+
+    private static final String CIRCUIT_OPEN_MESSAGE = "Access Management is unavailable, the circuit breaker is open";
+    private static final String CANCELLED_MESSAGE = "The call to Access Management has been cancelled by its caller";
+    private static final String LIMIT_EXCEEDED_MESSAGE = "Access Management is overloaded, the concurrency limit is reached";
+
+    private static final String REQUEST_ID_HEADER = "X-Gravitee-Request-Id";
+
+    private static final String SNAPSHOT_DIRECTORY = "gravitee-resource-oauth2-am";
+    private static final String SNAPSHOT_TOKEN_KEY_LABEL = "introspection-cache-token-key";
+    private static final String SNAPSHOT_ENCRYPTION_KEY_LABEL = "introspection-cache-snapshot-key";
+
+    private static final byte[] TOKEN_FORM_PREFIX = "token=".getBytes(StandardCharsets.US_ASCII);
 
     private static final String PATH_SEPARATOR = "/";
     private ApplicationContext applicationContext;
 
-    private HttpClient httpClient;
+    private io.vertx.core.Vertx vertx;
+
+    private EndpointGroup endpointGroup;
+
+    private HealthChecker healthChecker;
 
     private String userAgent;
 
-    private String introspectionEndpointURI;
+    private String introspectionEndpointPath;
     private String introspectionEndpointAuthorization;
-    private String userInfoEndpointURI;
+    private String userInfoEndpointPath;
+
+    private Map<Endpoint, RequestOptions> introspectionRequests;
+    private Map<Endpoint, RequestOptions> userInfoRequests;
     private OAuth2ResourceConfiguration configuration;
 
+    private IntrospectionCache introspectionCache;
+    private IntrospectionCache negativeIntrospectionCache;
+    private IntrospectionCacheSnapshot introspectionCacheSnapshot;
+
+    private SharedIntrospectionCache sharedIntrospectionCache;
+    private TokenHasher tokenHasher;
+
+    private UserInfoCache userInfoCache;
+
+    private final List<RevocationSource> revocationSources = new ArrayList<>();
+    private RevocationTombstones revocationTombstones;
+
+    private JwtValidator jwtValidator;
+
+    private CircuitBreaker circuitBreaker;
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private Gauge concurrencyLimitGauge;
+
+    private HedgingPolicy hedgingPolicy;
+
+    @Setter(AccessLevel.PACKAGE)
+    private MeterRegistry meterRegistry;
+
+    private AccessManagementMetrics metrics;
+
+    private final SingleFlight<String, OAuth2Response> introspectionFlight = new SingleFlight<>();
+    private final SingleFlight<String, UserInfoResponse> userInfoFlight = new SingleFlight<>();
+
     @Inject
     @Setter
     private DeploymentContext deploymentContext;
@@ -107,29 +239,35 @@ public class OAuth2AMResource extends OAuth2Resource<OAuth2ResourceConfiguration
 
         logger.info("Starting an OAuth2 resource using Gravitee.io Access Management server at {}", configuration().getServerURL());
 
-        URL introspectionUrl = new URL(configuration().getServerURL());
+        metrics =
+            new AccessManagementMetrics(
+                meterRegistry != null ? meterRegistry : defaultMeterRegistry(),
+                configuration().getSecurityDomain(),
+                configuration().getVersion().name()
+            );
 
-        int authorizationServerPort = introspectionUrl.getPort() != -1
-            ? introspectionUrl.getPort()
-            : (HTTPS_SCHEME.equals(introspectionUrl.getProtocol()) ? 443 : 80);
+        VertxHttpClientOptions httpClientOptions = HttpClientOptionsMapper.INSTANCE.map(configuration().getHttpClientOptions());
 
-        // URI.getHost does not support '_' in the name, so we are using an intermediate URL to get the final host
-        String authorizationServerHost = introspectionUrl.getHost();
-
-        var target = new URL(introspectionUrl.getProtocol(), authorizationServerHost, authorizationServerPort, introspectionUrl.getFile());
-
-        httpClient =
-            VertxHttpClientFactory
-                .builder()
-                .vertx(applicationContext.getBean(Vertx.class))
-                .nodeConfiguration(new SpringEnvironmentConfiguration(applicationContext.getEnvironment()))
-                .defaultTarget(target.toString())
-                .httpOptions(HttpClientOptionsMapper.INSTANCE.map(configuration().getHttpClientOptions()))
-                .sslOptions(SslOptionsMapper.INSTANCE.map(configuration().getSslOptions()))
-                .proxyOptions(HttpProxyOptionsMapper.INSTANCE.map(configuration().getHttpProxyOptions()))
-                .build()
-                .createHttpClient()
-                .getDelegate();
+        Vertx rxVertx = applicationContext.getBean(Vertx.class);
+        vertx = rxVertx.getDelegate();
+
+        List<EndpointOptions> endpointsOptions = configuration().getEndpoints() != null && !configuration().getEndpoints().isEmpty()
+            ? configuration().getEndpoints()
+            : List.of(new EndpointOptions(configuration().getServerURL(), null));
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (EndpointOptions endpointOptions : endpointsOptions) {
+            URL endpointUrl = new URL(endpointOptions.getUrl());
+            endpoints.add(
+                new Endpoint(
+                    endpointOptions.getUrl(),
+                    endpointOptions.getZone(),
+                    createHttpClient(rxVertx, endpointUrl, httpClientOptions),
+                    basePath(endpointUrl)
+                )
+            );
+        }
+        endpointGroup = new EndpointGroup(endpoints, configuration().getLoadBalancingOptions());
 
         introspectionEndpointAuthorization =
             AUTHORIZATION_HEADER_BASIC_SCHEME +
@@ -141,204 +279,1379 @@ public class OAuth2AMResource extends OAuth2Resource<OAuth2ResourceConfiguration
                     ).getBytes()
                 );
 
-        String path = (!introspectionUrl.getPath().isEmpty()) ? introspectionUrl.getPath() : PATH_SEPARATOR;
-        if (!path.endsWith(PATH_SEPARATOR)) {
-            path += PATH_SEPARATOR;
-        }
-
-        // Prepare userinfo and introspection endpoints
+        // Prepare userinfo and introspection endpoints, relative to the path of each AM endpoint
         if (configuration().getVersion() == OAuth2ResourceConfiguration.Version.V1_X) {
-            introspectionEndpointURI = path + configuration().getSecurityDomain() + CHECK_TOKEN_ENDPOINT;
+            introspectionEndpointPath = configuration().getSecurityDomain() + CHECK_TOKEN_ENDPOINT;
 
-            userInfoEndpointURI = path + configuration().getSecurityDomain() + USERINFO_ENDPOINT;
+            userInfoEndpointPath = configuration().getSecurityDomain() + USERINFO_ENDPOINT;
         } else {
-            introspectionEndpointURI = path + configuration().getSecurityDomain() + INTROSPECT_ENDPOINT_V2;
+            introspectionEndpointPath = configuration().getSecurityDomain() + INTROSPECT_ENDPOINT_V2;
 
-            userInfoEndpointURI = path + configuration().getSecurityDomain() + USERINFO_ENDPOINT_V2;
+            userInfoEndpointPath = configuration().getSecurityDomain() + USERINFO_ENDPOINT_V2;
         }
 
         userAgent = NodeUtils.userAgent(applicationContext.getBean(Node.class));
+
+        MultiMap commonHeaders = MultiMap.caseInsensitiveMultiMap().add(HttpHeaderNames.ACCEPT, MediaType.APPLICATION_JSON);
+        if (userAgent != null) {
+            commonHeaders.add(HttpHeaderNames.USER_AGENT, userAgent);
+        }
+
+        MultiMap introspectionHeaders = MultiMap
+            .caseInsensitiveMultiMap()
+            .addAll(commonHeaders)
+            .add(HttpHeaderNames.AUTHORIZATION, introspectionEndpointAuthorization)
+            .add(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED);
+        introspectionRequests =
+            requestTemplates(
+                HttpMethod.POST,
+                introspectionEndpointPath,
+                introspectionHeaders,
+                configuration().getIntrospectionTimeoutOptions()
+            );
+
+        userInfoRequests =
+            requestTemplates(HttpMethod.GET, userInfoEndpointPath, commonHeaders, configuration().getUserInfoTimeoutOptions());
+
+        HealthCheckOptions healthCheckOptions = configuration().getHealthCheckOptions();
+        if (healthCheckOptions != null && healthCheckOptions.isEnabled()) {
+            healthChecker =
+                new HealthChecker(
+                    vertx,
+                    endpointGroup,
+                    configuration().getSecurityDomain() + OPENID_CONFIGURATION_ENDPOINT,
+                    userAgent,
+                    healthCheckOptions
+                );
+            healthChecker.start();
+        }
+
+        WarmUpOptions warmUpOptions = configuration().getWarmUpOptions();
+        if (warmUpOptions != null && warmUpOptions.isEnabled()) {
+            warmUp(warmUpOptions);
+        }
+
+        // the cached entries are indexed by a keyed hash of the SHA-256 of the tokens, which must match the restored entries
+        final TokenHasher revocationHasher = isRevocationEnabled() ? new TokenHasher(clientCredentials()) : null;
+
+        if (configuration().getIntrospectionCacheOptions() != null && configuration().getIntrospectionCacheOptions().isEnabled()) {
+            CacheSnapshotOptions cacheSnapshotOptions = configuration().getCacheSnapshotOptions();
+            if (cacheSnapshotOptions != null && cacheSnapshotOptions.isEnabled()) {
+                // the keys must be the same across restarts, they are derived from the client credentials instead of a random secret
+                TokenHasher secrets = new TokenHasher(clientCredentials());
+                introspectionCache =
+                    new IntrospectionCache(
+                        configuration().getIntrospectionCacheOptions(),
+                        new SipHash(Arrays.copyOf(secrets.digest(SNAPSHOT_TOKEN_KEY_LABEL), 16))
+                    );
+                introspectionCacheSnapshot =
+                    new IntrospectionCacheSnapshot(snapshotFile(cacheSnapshotOptions), secrets.digest(SNAPSHOT_ENCRYPTION_KEY_LABEL));
+            } else {
+                introspectionCache = new IntrospectionCache(configuration().getIntrospectionCacheOptions());
+            }
+            introspectionCache.refreshAhead(
+                configuration().getIntrospectionCacheOptions().getRefreshAheadThreshold(),
+                configuration().getIntrospectionCacheOptions().getRefreshAheadMinHits(),
+                this::refreshIntrospection
+            );
+            introspectionCache.onEviction(() -> metrics.recordCacheEviction(AccessManagementMetrics.Cache.INTROSPECTION));
+            if (revocationHasher != null) {
+                introspectionCache.indexClaims(revocationHasher);
+            }
+            if (introspectionCacheSnapshot != null) {
+                restoreIntrospectionCache(configuration().getCacheSnapshotOptions().getMaxLoadTime());
+            }
+        }
+
+        if (
+            configuration().getVersion() != OAuth2ResourceConfiguration.Version.V1_X &&
+            configuration().getNegativeCacheOptions() != null &&
+            configuration().getNegativeCacheOptions().isEnabled()
+        ) {
+            negativeIntrospectionCache = new IntrospectionCache(configuration().getNegativeCacheOptions());
+            negativeIntrospectionCache.onEviction(() -> metrics.recordCacheEviction(AccessManagementMetrics.Cache.NEGATIVE_INTROSPECTION));
+        }
+
+        SharedCacheOptions sharedCacheOptions = configuration().getSharedCacheOptions();
+        if (sharedCacheOptions != null && sharedCacheOptions.isEnabled()) {
+            sharedIntrospectionCache = createSharedIntrospectionCache(sharedCacheOptions);
+            // the client credentials are only known by the gateway nodes, the shared keys can't be computed from a guessed token
+            tokenHasher = new TokenHasher(clientCredentials());
+            if (revocationHasher != null) {
+                revocationTombstones =
+                    new RevocationTombstones(revocationHasher, sharedCacheOptions.getMaxSize(), sharedCacheOptions.getMaxTimeToLive());
+            }
+        }
+
+        if (configuration().getUserInfoCacheOptions() != null && configuration().getUserInfoCacheOptions().isEnabled()) {
+            userInfoCache = new UserInfoCache(configuration().getUserInfoCacheOptions());
+            userInfoCache.onEviction(() -> metrics.recordCacheEviction(AccessManagementMetrics.Cache.USERINFO));
+            if (revocationHasher != null) {
+                userInfoCache.indexClaims(revocationHasher);
+            }
+        }
+
+        if (configuration().getCircuitBreakerOptions() != null && configuration().getCircuitBreakerOptions().isEnabled()) {
+            circuitBreaker = new CircuitBreaker(configuration().getCircuitBreakerOptions());
+            circuitBreaker.addListener((from, to) -> {
+                metrics.recordCircuitBreakerTransition(to.name());
+                if (to == CircuitBreaker.State.OPEN) {
+                    logger.warn("Circuit breaker to {} transitions from {} to {}", configuration().getServerURL(), from, to);
+                } else {
+                    logger.info("Circuit breaker to {} transitions from {} to {}", configuration().getServerURL(), from, to);
+                }
+            });
+        }
+
+        ConcurrencyLimitOptions concurrencyLimitOptions = configuration().getConcurrencyLimitOptions();
+        if (concurrencyLimitOptions != null && concurrencyLimitOptions.isEnabled()) {
+            final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(concurrencyLimitOptions);
+            concurrencyLimiter = limiter;
+            concurrencyLimitGauge = metrics.registerConcurrencyLimit(limiter::getLimit);
+        }
+
+        HedgingOptions hedgingOptions = configuration().getHedgingOptions();
+        if (hedgingOptions != null && hedgingOptions.isEnabled()) {
+            hedgingPolicy = new HedgingPolicy(hedgingOptions);
+        }
+
+        LocalValidationOptions localValidationOptions = configuration().getLocalValidationOptions();
+        if (localValidationOptions != null && localValidationOptions.isEnabled()) {
+            // fetched in place of the introspection, within the same timeouts
+            final TimeoutOptions jwksTimeoutOptions = configuration().getIntrospectionTimeoutOptions();
+            JwksProvider jwksProvider = new JwksProvider(
+                vertx,
+                endpointGroup,
+                requestTemplates(HttpMethod.GET, configuration().getSecurityDomain() + JWKS_ENDPOINT, commonHeaders, jwksTimeoutOptions),
+                jwksTimeoutOptions != null ? jwksTimeoutOptions.getTimeout() : 0,
+                TimeUnit.SECONDS.toMillis(localValidationOptions.getJwksMinRefreshInterval()),
+                TimeUnit.SECONDS.toMillis(localValidationOptions.getJwksMaxAge())
+            );
+            String issuer = localValidationOptions.getIssuer() != null && !localValidationOptions.getIssuer().isBlank()
+                ? localValidationOptions.getIssuer()
+                : authorizationServer();
+            String tokenType = emptyToNull(localValidationOptions.getTokenType());
+            String audience = emptyToNull(localValidationOptions.getAudience());
+            if (tokenType != null && !JWT_TYPE.equalsIgnoreCase(tokenType)) {
+                logger.info(
+                    "Only the tokens of type {} are validated locally, the others are introspected: AM issues its access tokens with " +
+                    "the {} type unless configured otherwise",
+                    tokenType,
+                    JWT_TYPE
+                );
+            } else if (audience == null) {
+                logger.warn(
+                    "The JWT are validated locally whatever their audience: an ID token signed by the security domain is accepted as an " +
+                    "access token, unless localValidation.audience is set"
+                );
+            }
+            jwtValidator = new JwtValidator(jwksProvider, issuer, tokenType, audience, localValidationOptions.getClockSkew());
+        }
+
+        if (isRevocationEnabled()) {
+            RevocationSource revocationSource = createRevocationSource(configuration().getRevocationOptions());
+            if (revocationSource != null) {
+                revocationSources.add(revocationSource);
+            }
+        }
+        for (RevocationSource revocationSource : revocationSources) {
+            revocationSource.start(this::revoke);
+        }
+    }
+
+    /**
+     * @return the registry of the gateway metrics, or a registry discarding the measures if the metrics are disabled.
+     */
+    private static MeterRegistry defaultMeterRegistry() {
+        MeterRegistry registry = BackendRegistries.getDefaultNow();
+        return registry != null ? registry : NoopBackendRegistry.INSTANCE.getMeterRegistry();
+    }
+
+    private String clientCredentials() {
+        return (
+            configuration().getSecurityDomain() +
+            AUTHORIZATION_HEADER_VALUE_BASE64_SEPARATOR +
+            configuration().getClientId() +
+            AUTHORIZATION_HEADER_VALUE_BASE64_SEPARATOR +
+            configuration().getClientSecret()
+        );
+    }
+
+    /**
+     * @return the snapshot file of this resource, named after a hash of the AM server and of the client so that it can't be
+     * restored by another resource.
+     */
+    private Path snapshotFile(CacheSnapshotOptions cacheSnapshotOptions) {
+        Path directory = cacheSnapshotOptions.getDirectory() != null
+            ? Path.of(cacheSnapshotOptions.getDirectory())
+            : Path.of(System.getProperty("java.io.tmpdir"), SNAPSHOT_DIRECTORY);
+        String name = new TokenHasher(clientCredentials()).hash(configuration().getServerURL());
+        return directory.resolve(name + ".snapshot");
+    }
+
+    /**
+     * Restores the introspection cache in the background, the resource serves requests meanwhile.
+     */
+    private void restoreIntrospectionCache(long maxLoadTime) {
+        final IntrospectionCache cache = introspectionCache;
+        final IntrospectionCacheSnapshot snapshot = introspectionCacheSnapshot;
+        vertx
+            .executeBlocking(() -> snapshot.load(cache, maxLoadTime), false)
+            .onSuccess(restored -> logger.debug("{} introspection results restored from {}", restored, snapshot.file()))
+            .onFailure(throwable -> logger.warn("Unable to restore the introspection cache from {}", snapshot.file(), throwable));
+    }
+
+    private void saveIntrospectionCache() {
+        if (introspectionCacheSnapshot == null) {
+            return;
+        }
+
+        try {
+            int saved = introspectionCacheSnapshot.save(introspectionCache);
+            logger.debug("{} introspection results saved to {}", saved, introspectionCacheSnapshot.file());
+        } catch (IOException ex) {
+            logger.warn("Unable to save the introspection cache to {}", introspectionCacheSnapshot.file(), ex);
+        }
+        introspectionCacheSnapshot = null;
+    }
+
+    /**
+     * Opens the connections to AM, waiting for them at most the configured time. The start is never blocked when it runs on an
+     * event loop, as the connections would be opened by this same event loop.
+     */
+    private void warmUp(WarmUpOptions warmUpOptions) throws InterruptedException {
+        final long start = System.nanoTime();
+        final CountDownLatch latch = new CountDownLatch(1);
+        new ConnectionWarmer(
+            endpointGroup,
+            configuration().getSecurityDomain() + OPENID_CONFIGURATION_ENDPOINT,
+            userAgent,
+            warmUpOptions.getConnections(),
+            warmUpOptions.getTimeout()
+        )
+            .warmUp()
+            .onComplete(ar -> {
+                if (ar.succeeded()) {
+                    logger.debug(
+                        "{} connections to {} warmed up in {}ms",
+                        ar.result(),
+                        configuration().getServerURL(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    );
+                }
+                latch.countDown();
+            });
+
+        if (warmUpOptions.getMaxWaitTime() > 0 && !Context.isOnEventLoopThread()) {
+            if (!latch.await(warmUpOptions.getMaxWaitTime(), TimeUnit.MILLISECONDS)) {
+                logger.debug("The warm-up of the connections to {} goes on in the background", configuration().getServerURL());
+            }
+        }
+    }
+
+    private boolean isRevocationEnabled() {
+        return configuration().getRevocationOptions() != null && configuration().getRevocationOptions().isEnabled();
+    }
+
+    private RevocationSource createRevocationSource(RevocationOptions revocationOptions) {
+        if (revocationOptions.getType() == RevocationOptions.Type.WEBHOOK) {
+            return new WebhookRevocationSource(revocationOptions.getName());
+        }
+
+        if (revocationOptions.getUrl() == null || revocationOptions.getUrl().isBlank()) {
+            logger.warn("No revocation feed URL is configured, the revoked tokens are only evicted when they expire");
+            return null;
+        }
+        // The revocation feed is the same on every node, it is polled through the first endpoint
+        return new PollingRevocationSource(
+            vertx,
+            endpointGroup.getEndpoints().get(0).getHttpClient(),
+            revocationOptions.getUrl(),
+            introspectionEndpointAuthorization,
+            userAgent,
+            revocationOptions.getPollInterval()
+        );
+    }
+
+    /**
+     * Evicts the cached introspection and userinfo results of a revoked token, user or application.
+     *
+     * The shared cache is keyed by a hash of the access token, so its entries are only evicted when the access token itself is
+     * revoked. The other revocations are remembered instead, so that the matching shared entries are not served anymore, and the
+     * other nodes evict their own entries as they consume the same events.
+     */
+    private void revoke(RevocationEvent event) {
+        logger.debug("Revocation of the {} {}", event.type(), event.type() == RevocationEvent.Type.TOKEN ? "token" : event.value());
+
+        final IntrospectionCache cache = introspectionCache;
+        final UserInfoCache userInfo = userInfoCache;
+        final RevocationTombstones tombstones = revocationTombstones;
+        switch (event.type()) {
+            case TOKEN -> {
+                invalidateIntrospection(event.value());
+                if (userInfo != null) {
+                    userInfo.invalidate(event.value());
+                }
+            }
+            case TOKEN_HASH -> {
+                try {
+                    byte[] sha256 = Base64.getUrlDecoder().decode(event.value());
+                    if (tombstones != null) {
+                        tombstones.revokeTokenHash(sha256);
+                    }
+                    if (cache != null) {
+                        cache.invalidateByTokenHash(sha256);
+                    }
+                    if (userInfo != null) {
+                        userInfo.invalidateByTokenHash(sha256);
+                    }
+                } catch (IllegalArgumentException ex) {
+                    logger.debug("Invalid revoked token hash {}", event.value());
+                }
+            }
+            case SUBJECT -> {
+                if (tombstones != null) {
+                    tombstones.revokeSubject(event.value());
+                }
+                if (cache != null) {
+                    cache.invalidateBySubject(event.value());
+                }
+                if (userInfo != null) {
+                    userInfo.invalidateBySubject(event.value());
+                }
+            }
+            case CLIENT_ID -> {
+                if (tombstones != null) {
+                    tombstones.revokeClientId(event.value());
+                }
+                // the userinfo results don't tell the application, they are found through the introspection results of its tokens
+                if (cache != null) {
+                    cache.invalidateByClientId(
+                        event.value(),
+                        tokenHash -> {
+                            if (userInfo != null) {
+                                userInfo.invalidateByTokenHash(tokenHash);
+                            }
+                        }
+                    );
+                }
+            }
+        }
+    }
+
+    private SharedIntrospectionCache createSharedIntrospectionCache(SharedCacheOptions sharedCacheOptions) {
+        if (sharedCacheOptions.getType() == SharedCacheOptions.Type.CLUSTER) {
+            CacheManager cacheManager = null;
+            try {
+                cacheManager = applicationContext.getBean(CacheManager.class);
+            } catch (BeansException be) {
+                logger.debug("No cache manager found", be);
+            }
+
+            if (cacheManager != null) {
+                return NodeSharedIntrospectionCache.create(
+                    cacheManager,
+                    sharedCacheOptions.getName(),
+                    sharedCacheOptions.getMaxSize(),
+                    sharedCacheOptions.getMaxTimeToLive()
+                );
+            }
+            logger.warn("No cluster cache available to share the introspection results, fallback to a cache in the memory of the node");
+        }
+        return InMemorySharedIntrospectionCache.acquire(sharedCacheOptions.getName(), sharedCacheOptions.getMaxSize());
+    }
+
+    private HttpClient createHttpClient(Vertx rxVertx, URL url, VertxHttpClientOptions httpClientOptions) throws Exception {
+        int port = url.getPort() != -1 ? url.getPort() : (HTTPS_SCHEME.equals(url.getProtocol()) ? 443 : 80);
+
+        // URI.getHost does not support '_' in the name, so we are using an intermediate URL to get the final host
+        var target = new URL(url.getProtocol(), url.getHost(), port, url.getFile());
+
+        HttpClient httpClient = VertxHttpClientFactory
+            .builder()
+            .vertx(rxVertx)
+            .nodeConfiguration(new SpringEnvironmentConfiguration(applicationContext.getEnvironment()))
+            .defaultTarget(target.toString())
+            .httpOptions(httpClientOptions)
+            .sslOptions(SslOptionsMapper.INSTANCE.map(configuration().getSslOptions()))
+            .proxyOptions(HttpProxyOptionsMapper.INSTANCE.map(configuration().getHttpProxyOptions()))
+            .build()
+            .createHttpClient()
+            .getDelegate();
+        return withHttp2Pool(rxVertx, httpClientOptions, httpClient);
+    }
+
+    /**
+     * Prepares the options of the requests of an operation, once per endpoint. The client only reads them and copies the headers
+     * into each request, so they are shared by all the calls: only the per-call headers are added to the request itself.
+     */
+    private Map<Endpoint, RequestOptions> requestTemplates(
+        HttpMethod method,
+        String path,
+        MultiMap headers,
+        TimeoutOptions timeoutOptions
+    ) {
+        Map<Endpoint, RequestOptions> templates = new IdentityHashMap<>();
+        for (Endpoint endpoint : endpointGroup.getEndpoints()) {
+            RequestOptions reqOptions = new RequestOptions().setMethod(method).setURI(endpoint.uri(path)).setHeaders(headers);
+            applyTimeouts(reqOptions, timeoutOptions);
+            templates.put(endpoint, reqOptions);
+        }
+        return templates;
+    }
+
+    private static String basePath(URL url) {
+        String path = (!url.getPath().isEmpty()) ? url.getPath() : PATH_SEPARATOR;
+        if (!path.endsWith(PATH_SEPARATOR)) {
+            path += PATH_SEPARATOR;
+        }
+        return path;
+    }
+
+    /**
+     * The HTTP client factory sizes both the HTTP/1.1 and the HTTP/2 pools with <code>http.maxConcurrentConnections</code>. With
+     * <code>http2.maxConnections</code>, the client is created again with its own HTTP/2 pool size, from the options (SSL, proxy,
+     * timeouts...) the factory built for it. The HTTP/1.1 pool, used when AM does not speak HTTP/2, is left as configured.
+     */
+    private HttpClient withHttp2Pool(Vertx rxVertx, VertxHttpClientOptions httpClientOptions, HttpClient httpClient) {
+        final Http2Options http2Options = configuration().getHttp2Options();
+        if (
+            http2Options == null ||
+            http2Options.getMaxConnections() <= 0 ||
+            httpClientOptions == null ||
+            httpClientOptions.getVersion() != VertxHttpProtocolVersion.HTTP_2
+        ) {
+            return httpClient;
+        }
+        if (!(httpClient instanceof HttpClientInternal internalClient)) {
+            logger.warn("Unable to read the options of the HTTP client, http2.maxConnections is ignored");
+            return httpClient;
+        }
+
+        final int maxConnections = http2Options.getMaxConnections();
+        logger.debug("Use up to {} HTTP/2 connections to each Access Management endpoint", maxConnections);
+        final HttpClientOptions options = new HttpClientOptions(internalClient.options());
+        final PoolOptions poolOptions = new PoolOptions(options.getPoolOptions()).setHttp2MaxSize(maxConnections);
+        // no connection has been opened yet
+        httpClient.close();
+        return rxVertx.getDelegate().createHttpClient(options, poolOptions);
     }
 
     @Override
     protected void doStop() throws Exception {
         super.doStop();
-        try {
-            httpClient.close();
-        } catch (IllegalStateException ise) {
-            logger.warn(ise.getMessage());
+
+        if (healthChecker != null) {
+            healthChecker.stop();
+            healthChecker = null;
         }
+
+        for (RevocationSource revocationSource : revocationSources) {
+            revocationSource.stop();
+        }
+        revocationSources.clear();
+
+        if (endpointGroup != null) {
+            for (Endpoint endpoint : endpointGroup.getEndpoints()) {
+                try {
+                    endpoint.getHttpClient().close();
+                } catch (IllegalStateException ise) {
+                    logger.warn(ise.getMessage());
+                }
+            }
+        }
+
+        if (introspectionCache != null) {
+            saveIntrospectionCache();
+            introspectionCache.clear();
+            introspectionCache = null;
+        }
+
+        if (negativeIntrospectionCache != null) {
+            negativeIntrospectionCache.clear();
+            negativeIntrospectionCache = null;
+        }
+
+        if (sharedIntrospectionCache != null) {
+            sharedIntrospectionCache.close();
+            sharedIntrospectionCache = null;
+        }
+        revocationTombstones = null;
+
+        if (userInfoCache != null) {
+            userInfoCache.clear();
+            userInfoCache = null;
+        }
+
+        jwtValidator = null;
+        circuitBreaker = null;
+
+        if (concurrencyLimitGauge != null) {
+            metrics.remove(concurrencyLimitGauge);
+            concurrencyLimitGauge = null;
+        }
+        concurrencyLimiter = null;
+        hedgingPolicy = null;
+    }
+
+    /**
+     * @return <code>true</code> if the call to AM can be attempted, <code>false</code> if it must fail fast.
+     */
+    private boolean acquireCallPermission() {
+        return circuitBreaker == null || circuitBreaker.tryAcquirePermission();
+    }
+
+    /**
+     * @return <code>true</code> if the call to AM can be attempted, <code>false</code> if too many calls are in progress.
+     */
+    private static boolean acquireConcurrencySlot(AdaptiveConcurrencyLimiter limiter) {
+        return limiter == null || limiter.tryAcquire();
+    }
+
+    private static void releaseConcurrencySlot(AdaptiveConcurrencyLimiter limiter) {
+        if (limiter != null) {
+            limiter.release();
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * @return the identifier of the gateway request, or a random one when the caller has none, so that every call can be
+     * traced on the AM side.
+     */
+    private static String requestId(CallOptions callOptions) {
+        return callOptions.getRequestId() != null ? callOptions.getRequestId() : UUID.toString(UUID.random());
+    }
+
+    /**
+     * Releases the slot of a completed call, whose latency adjusts the concurrency limit. Only the calls AM failed to serve
+     * reduce the limit: a refused token tells nothing about the load of AM.
+     */
+    private static void releaseConcurrencySlot(AdaptiveConcurrencyLimiter limiter, long start, Throwable throwable) {
+        if (limiter != null) {
+            limiter.onResult(System.nanoTime() - start, isUnavailable(throwable));
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the call failed because AM could not serve it: no response in time, a transport error or a
+     * 5xx status.
+     */
+    private static boolean isUnavailable(Throwable throwable) {
+        if (throwable == null) {
+            return false;
+        }
+        if (throwable instanceof UnexpectedResponseException unexpectedResponse) {
+            return unexpectedResponse.isServerError();
+        }
+        return AccessManagementMetrics.failure(throwable) != Outcome.CANCELLED;
+    }
+
+    /**
+     * @return the duration of the call, in nanoseconds.
+     */
+    private long recordCallOutcome(Endpoint endpoint, long start, boolean failed) {
+        long duration = System.nanoTime() - start;
+        endpoint.onResult(duration, failed);
+        if (circuitBreaker != null) {
+            circuitBreaker.onResult(duration, failed);
+        }
+        return duration;
+    }
+
+    private void recordCallResult(Operation operation, Endpoint endpoint, long start, CallResult<?> result) {
+        long duration = recordCallOutcome(endpoint, start, result.statusCode() >= HttpStatusCode.INTERNAL_SERVER_ERROR_500);
+        metrics.recordCall(operation, duration, result.outcome());
+    }
+
+    private void recordCallFailure(Operation operation, Endpoint endpoint, long start, Throwable throwable) {
+        Outcome outcome = AccessManagementMetrics.failure(throwable);
+        if (outcome == Outcome.CANCELLED) {
+            // the result of the call was not needed anymore, it did not fail
+            logger.debug("The {} call to {} has been cancelled", operation, endpoint.getUrl());
+            metrics.recordCall(operation, recordCallOutcome(endpoint, start, false), outcome);
+            return;
+        }
+
+        logger.error(
+            operation == Operation.INTROSPECT
+                ? "An error occurs while checking access token"
+                : "An error occurs while getting userinfo from access token",
+            throwable
+        );
+        metrics.recordCall(operation, recordCallOutcome(endpoint, start, true), outcome);
     }
 
     @Override
     public void introspect(String accessToken, Handler<OAuth2Response> responseHandler) {
-        logger.debug("Introspect access token by requesting {}", introspectionEndpointURI);
-
-        final RequestOptions reqOptions = new RequestOptions()
-            .setMethod(HttpMethod.POST)
-            .setURI(introspectionEndpointURI)
-            .putHeader(HttpHeaders.USER_AGENT, userAgent)
-            .putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()))
-            .putHeader(HttpHeaders.AUTHORIZATION, introspectionEndpointAuthorization)
-            .putHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
-            .putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED)
-            .setTimeout(30000L);
-
-        httpClient
-            .request(reqOptions)
-            .onFailure(
-                new io.vertx.core.Handler<Throwable>() {
-                    @Override
-                    public void handle(Throwable event) {
-                        logger.error("An error occurs while checking access token", event);
-                        responseHandler.handle(new OAuth2Response(event));
+        introspect(accessToken, CallOptions.DEFAULT, responseHandler);
+    }
+
+    /**
+     * Same as {@link #introspect(String, Handler)}, with options such as the remaining time budget of the caller.
+     */
+    public void introspect(String accessToken, CallOptions callOptions, Handler<OAuth2Response> responseHandler) {
+        introspect(accessToken, callOptions, callOptions.getCancellation(), responseHandler);
+    }
+
+    /**
+     * Same as {@link #introspect(String, Handler)}, emitting the active and inactive introspection results, or the error of the
+     * call to AM. Disposing the subscription aborts the call to AM, unless other callers are waiting for the same token. The
+     * cancellation of the {@link CallOptions} also aborts the call, emitting a {@link RequestCancelledException}.
+     */
+    public Single<OAuth2Response> rxIntrospect(String accessToken) {
+        return rxIntrospect(accessToken, CallOptions.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #rxIntrospect(String)}, with options such as the remaining time budget of the caller.
+     */
+    public Single<OAuth2Response> rxIntrospect(String accessToken, CallOptions callOptions) {
+        return Single.create(emitter -> {
+            final Cancellation cancellation = subscriptionCancellation(callOptions);
+            emitter.setCancellable(cancellation::cancel);
+            // a cancelled caller is not notified by the call, the subscriber is terminated here, unless it has been disposed
+            cancellation.onCancel(() -> emitter.tryOnError(new RequestCancelledException(CANCELLED_MESSAGE)));
+            if (emitter.isDisposed()) {
+                // cancelled before the subscription
+                return;
+            }
+            introspect(
+                accessToken,
+                callOptions,
+                cancellation,
+                oAuth2Response -> {
+                    if (oAuth2Response.getThrowable() != null) {
+                        emitter.tryOnError(oAuth2Response.getThrowable());
+                    } else {
+                        emitter.onSuccess(oAuth2Response);
                     }
                 }
-            )
-            .onSuccess(
-                new io.vertx.core.Handler<HttpClientRequest>() {
-                    @Override
-                    public void handle(HttpClientRequest request) {
-                        request
-                            .response(
-                                new io.vertx.core.Handler<AsyncResult<HttpClientResponse>>() {
-                                    @Override
-                                    public void handle(AsyncResult<HttpClientResponse> asyncResponse) {
-                                        if (asyncResponse.failed()) {
-                                            logger.error("An error occurs while checking access token", asyncResponse.cause());
-                                            responseHandler.handle(new OAuth2Response(asyncResponse.cause()));
-                                        } else {
-                                            final HttpClientResponse response = asyncResponse.result();
-                                            logger.debug(
-                                                "AM Introspection endpoint returns a response with a {} status code",
-                                                response.statusCode()
-                                            );
-                                            response.bodyHandler(buffer -> {
-                                                if (response.statusCode() == HttpStatusCode.OK_200) {
-                                                    if (configuration().getVersion() == OAuth2ResourceConfiguration.Version.V1_X) {
-                                                        responseHandler.handle(new OAuth2Response(true, buffer.toString()));
-                                                    } else {
-                                                        // Introspection Response from AM v2 always returns HTTP 200
-                                                        // with an "active" boolean indicator of whether or not the presented token is currently active.
-                                                        // retrieve active indicator
-                                                        JsonObject jsonObject = buffer.toJsonObject();
-                                                        boolean active = jsonObject.getBoolean(INTROSPECTION_ACTIVE_INDICATOR, false);
-                                                        responseHandler.handle(
-                                                            new OAuth2Response(
-                                                                active,
-                                                                (active) ? buffer.toString() : "{\"error\": \"Invalid Access Token\"}"
-                                                            )
-                                                        );
-                                                    }
-                                                } else {
-                                                    logger.error(
-                                                        "An error occurs while checking access token. Request ends with status {}: {}",
-                                                        response.statusCode(),
-                                                        buffer.toString()
-                                                    );
-                                                    responseHandler.handle(
-                                                        new OAuth2Response(
-                                                            new OAuth2ResourceException("An error occurs while checking access token")
-                                                        )
-                                                    );
-                                                }
-                                            });
-                                        }
-                                    }
-                                }
-                            )
-                            .exceptionHandler(
-                                new io.vertx.core.Handler<Throwable>() {
-                                    @Override
-                                    public void handle(Throwable event) {
-                                        logger.error("An error occurs while checking access token", event);
-                                        responseHandler.handle(new OAuth2Response(event));
-                                    }
-                                }
-                            )
-                            .end("token=" + accessToken);
-                    }
+            );
+        });
+    }
+
+    /**
+     * @param cancellation the cancellation of the caller, or <code>null</code> if it can't cancel.
+     */
+    private void introspect(
+        String accessToken,
+        CallOptions callOptions,
+        Cancellation cancellation,
+        Handler<OAuth2Response> responseHandler
+    ) {
+        if (introspectionCache != null) {
+            OAuth2Response cachedResponse = introspectionCache.get(accessToken);
+            if (cachedResponse != null) {
+                logger.debug("Access token introspection result retrieved from cache");
+                metrics.recordCacheHit(AccessManagementMetrics.Cache.INTROSPECTION);
+                responseHandler.handle(cachedResponse);
+                return;
+            }
+            metrics.recordCacheMiss(AccessManagementMetrics.Cache.INTROSPECTION);
+        }
+
+        if (negativeIntrospectionCache != null) {
+            OAuth2Response cachedResponse = negativeIntrospectionCache.get(accessToken);
+            if (cachedResponse != null) {
+                logger.debug("Inactive access token introspection result retrieved from cache");
+                metrics.recordCacheHit(AccessManagementMetrics.Cache.NEGATIVE_INTROSPECTION);
+                responseHandler.handle(cachedResponse);
+                return;
+            }
+            metrics.recordCacheMiss(AccessManagementMetrics.Cache.NEGATIVE_INTROSPECTION);
+        }
+
+        if (jwtValidator != null && JwtValidator.isJwt(accessToken)) {
+            jwtValidator.validate(
+                accessToken,
+                result -> handleLocalValidation(accessToken, callOptions, cancellation, result, responseHandler)
+            );
+            return;
+        }
+
+        introspectRemotely(accessToken, callOptions, cancellation, true, responseHandler);
+    }
+
+    /**
+     * Introspects again a frequently accessed token in the background: the new result, or the eviction of a token which is not
+     * active anymore, is applied to the cache by the introspection itself.
+     */
+    private void refreshIntrospection(String accessToken) {
+        if (jwtValidator != null && JwtValidator.isJwt(accessToken)) {
+            // validated locally, a cache miss costs no call to AM
+            return;
+        }
+
+        logger.debug("Refresh ahead a cached access token introspection result");
+        // the shared result is as old as the local one, it is not worth a lookup
+        introspectRemotely(accessToken, CallOptions.DEFAULT, null, false, oAuth2Response -> {});
+    }
+
+    private void introspectRemotely(
+        String accessToken,
+        CallOptions callOptions,
+        Cancellation cancellation,
+        boolean lookupSharedCache,
+        Handler<OAuth2Response> responseHandler
+    ) {
+        introspectionFlight.execute(
+            accessToken,
+            cancellation,
+            withCallerDeadline(callOptions, cancellation, responseHandler, OAuth2Response::new),
+            (flightCancellation, handler) -> {
+                if (lookupSharedCache && sharedIntrospectionCache != null) {
+                    introspectFromSharedCache(accessToken, callOptions, flightCancellation, staleIfError(accessToken, handler));
+                } else {
+                    introspectFromAM(accessToken, callOptions, flightCancellation, staleIfError(accessToken, handler));
+                }
+            }
+        );
+    }
+
+    /**
+     * Looks up the introspection result cached by another node before calling AM.
+     */
+    private void introspectFromSharedCache(
+        String accessToken,
+        CallOptions callOptions,
+        Cancellation cancellation,
+        Handler<OAuth2Response> handler
+    ) {
+        getFromSharedCache(
+            sharedIntrospectionCache,
+            tokenHasher.hash(accessToken),
+            payload -> {
+                final RevocationTombstones tombstones = revocationTombstones;
+                if (payload != null && tombstones != null && tombstones.isRevoked(accessToken, payload)) {
+                    // may be written before a revocation of the token, its user or its application: AM tells if it is still active
+                    logger.debug("Access token introspection result from the shared cache ignored, it may have been revoked");
+                    metrics.recordCacheMiss(AccessManagementMetrics.Cache.SHARED_INTROSPECTION);
+                    introspectFromAM(accessToken, callOptions, cancellation, handler);
+                    return;
+                }
+
+                if (payload == null) {
+                    metrics.recordCacheMiss(AccessManagementMetrics.Cache.SHARED_INTROSPECTION);
+                    introspectFromAM(accessToken, callOptions, cancellation, handler);
+                    return;
+                }
+
+                logger.debug("Access token introspection result retrieved from the shared cache");
+                metrics.recordCacheHit(AccessManagementMetrics.Cache.SHARED_INTROSPECTION);
+                OAuth2Response oAuth2Response = new OAuth2Response(true, payload);
+                if (introspectionCache != null) {
+                    introspectionCache.put(accessToken, oAuth2Response, expiration(payload));
+                }
+                handler.handle(oAuth2Response);
+            }
+        );
+    }
+
+    /**
+     * Looks up the shared cache within its lookup timeout. A lookup which takes longer is considered as a miss, so that a slow
+     * cluster cache doesn't hold the call to AM any longer, and its late result is ignored.
+     */
+    private void getFromSharedCache(SharedIntrospectionCache sharedCache, String key, Handler<String> handler) {
+        final long lookupTimeout = configuration().getSharedCacheOptions().getLookupTimeout();
+        if (lookupTimeout <= 0) {
+            sharedCache.get(key, handler);
+            return;
+        }
+
+        final AtomicBoolean completed = new AtomicBoolean();
+        final long timerId = vertx.setTimer(
+            lookupTimeout,
+            id -> {
+                if (completed.compareAndSet(false, true)) {
+                    logger.warn("No answer from the shared introspection cache after {} ms, considered as a miss", lookupTimeout);
+                    handler.handle(null);
+                }
+            }
+        );
+        sharedCache.get(
+            key,
+            payload -> {
+                if (completed.compareAndSet(false, true)) {
+                    vertx.cancelTimer(timerId);
+                    handler.handle(payload);
+                }
+            }
+        );
+    }
+
+    private boolean isIntrospectionCacheEnabled() {
+        return introspectionCache != null || sharedIntrospectionCache != null;
+    }
+
+    /**
+     * Caches the introspection result of an active token, in the cache of the node and in the shared cache.
+     */
+    private void cacheIntrospection(String accessToken, OAuth2Response oAuth2Response, Long expiresAt) {
+        if (introspectionCache != null) {
+            introspectionCache.put(accessToken, oAuth2Response, expiresAt);
+        }
+
+        final SharedIntrospectionCache sharedCache = sharedIntrospectionCache;
+        if (sharedCache != null) {
+            long timeToLive = TimeUnit.SECONDS.toMillis(configuration().getSharedCacheOptions().getMaxTimeToLive());
+            if (expiresAt != null) {
+                timeToLive = Math.min(timeToLive, TimeUnit.SECONDS.toMillis(expiresAt) - System.currentTimeMillis());
+            }
+            sharedCache.put(tokenHasher.hash(accessToken), oAuth2Response.getPayload(), timeToLive);
+        }
+    }
+
+    /**
+     * Evicts the introspection result of a token which is not active anymore, from the cache of the node and from the shared cache.
+     */
+    private void invalidateIntrospection(String accessToken) {
+        if (introspectionCache != null) {
+            introspectionCache.invalidate(accessToken);
+        }
+
+        final SharedIntrospectionCache sharedCache = sharedIntrospectionCache;
+        if (sharedCache != null) {
+            sharedCache.evict(tokenHasher.hash(accessToken));
+        }
+    }
+
+    /**
+     * Falls back to the cached introspection result, even if it is stale, when AM can't serve the call: it is unreachable,
+     * too slow, fails with a 5xx status, or is protected by the circuit breaker or the concurrency limit. A token refused by
+     * AM is never served from a stale entry.
+     */
+    private Handler<OAuth2Response> staleIfError(String accessToken, Handler<OAuth2Response> responseHandler) {
+        final IntrospectionCache cache = introspectionCache;
+        if (cache == null || !cache.isStaleIfErrorEnabled()) {
+            return responseHandler;
+        }
+
+        return oAuth2Response -> {
+            Throwable throwable = oAuth2Response.getThrowable();
+            if (isUnavailable(throwable) || throwable instanceof CallRejectedException) {
+                OAuth2Response staleResponse = cache.getStale(accessToken);
+                if (staleResponse != null) {
+                    logger.debug("Serve a stale introspection result, the call to AM failed", oAuth2Response.getThrowable());
+                    metrics.recordStaleHit();
+                    responseHandler.handle(staleResponse);
+                    return;
+                }
+            }
+            responseHandler.handle(oAuth2Response);
+        };
+    }
+
+    private void handleLocalValidation(
+        String accessToken,
+        CallOptions callOptions,
+        Cancellation cancellation,
+        JwtValidationResult result,
+        Handler<OAuth2Response> responseHandler
+    ) {
+        switch (result.status()) {
+            case VALID -> {
+                OAuth2Response oAuth2Response = new OAuth2Response(true, introspectionPayload(result.claims()));
+                if (introspectionCache != null) {
+                    introspectionCache.put(accessToken, oAuth2Response, expiration(result.claims()));
+                }
+                responseHandler.handle(oAuth2Response);
+            }
+            case INVALID -> {
+                logger.debug("Access token rejected by local validation: {}", result.reason());
+                OAuth2Response oAuth2Response = new OAuth2Response(false, INVALID_ACCESS_TOKEN_PAYLOAD);
+                if (negativeIntrospectionCache != null) {
+                    negativeIntrospectionCache.put(accessToken, oAuth2Response, null);
+                }
+                responseHandler.handle(oAuth2Response);
+            }
+            default -> {
+                logger.debug("Access token can't be validated locally, fallback to introspection: {}", result.reason());
+                introspectRemotely(accessToken, callOptions, cancellation, true, responseHandler);
+            }
+        }
+    }
+
+    /**
+     * Synthesizes an introspection response (RFC 7662) from the claims of a locally validated JWT access token.
+     */
+    private static String introspectionPayload(JsonObject claims) {
+        JsonObject payload = claims.copy().put(INTROSPECTION_ACTIVE_INDICATOR, true);
+        if (!payload.containsKey(INTROSPECTION_CLIENT_ID_CLAIM) && payload.getValue(AUDIENCE_CLAIM) instanceof String audience) {
+            payload.put(INTROSPECTION_CLIENT_ID_CLAIM, audience);
+        }
+        return payload.encode();
+    }
+
+    /**
+     * Calls the introspection endpoint, sending a second request to another endpoint if the first one is slow to answer and
+     * hedging is enabled.
+     */
+    private void introspectFromAM(String accessToken, CallOptions callOptions, Cancellation cancellation, Handler<OAuth2Response> handler) {
+        final HedgingPolicy policy = hedgingPolicy;
+        if (policy == null) {
+            doIntrospect(accessToken, callOptions, cancellation, endpointGroup.select(), null, handler);
+            return;
+        }
+
+        final AtomicReference<Endpoint> primary = new AtomicReference<>();
+        HedgedRequest.execute(
+            vertx,
+            policy,
+            (hedge, onRequest, onResult) -> {
+                Endpoint endpoint;
+                if (hedge) {
+                    logger.debug("Access token introspection is slow to answer, hedge it");
+                    metrics.recordHedge();
+                    endpoint = endpointGroup.select(primary.get());
+                } else {
+                    endpoint = endpointGroup.select();
+                    primary.set(endpoint);
+                }
+                doIntrospect(accessToken, callOptions, cancellation, endpoint, onRequest, onResult);
+            },
+            oAuth2Response -> oAuth2Response.getThrowable() != null,
+            handler
+        );
+    }
+
+    /**
+     * @param cancellation the cancellation of the call, or <code>null</code> if it can't be cancelled.
+     * @param onRequest notified with the HTTP request once it is obtained, or <code>null</code>.
+     */
+    private void doIntrospect(
+        String accessToken,
+        CallOptions callOptions,
+        Cancellation cancellation,
+        Endpoint endpoint,
+        Handler<HttpClientRequest> onRequest,
+        Handler<OAuth2Response> handler
+    ) {
+        if (cancellation != null && cancellation.isCancelled()) {
+            handler.handle(new OAuth2Response(new RequestCancelledException(CANCELLED_MESSAGE)));
+            return;
+        }
+
+        final AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+        if (!acquireConcurrencySlot(limiter)) {
+            logger.debug("Access token introspection rejected, the concurrency limit is reached");
+            metrics.recordRejectedCall(Operation.INTROSPECT, Outcome.LIMIT_EXCEEDED);
+            handler.handle(new OAuth2Response(new CallRejectedException(LIMIT_EXCEEDED_MESSAGE)));
+            return;
+        }
+
+        if (!acquireCallPermission()) {
+            releaseConcurrencySlot(limiter);
+            logger.debug("Access token introspection rejected, the circuit breaker is open");
+            metrics.recordRejectedCall(Operation.INTROSPECT, Outcome.CIRCUIT_OPEN);
+            handler.handle(new OAuth2Response(new CallRejectedException(CIRCUIT_OPEN_MESSAGE)));
+            return;
+        }
+
+        final long start = System.nanoTime();
+        endpoint.onRequest();
+        final LongTaskTimer.Sample inFlight = metrics.startCall(Operation.INTROSPECT);
+
+        final TimeoutOptions timeoutOptions = configuration().getIntrospectionTimeoutOptions();
+        final RequestTimeout<OAuth2Response> responseHandler = new RequestTimeout<>(
+            vertx,
+            timeout(timeoutOptions, callOptions),
+            cancellation,
+            throwable -> {
+                recordCallFailure(Operation.INTROSPECT, endpoint, start, throwable);
+                return new OAuth2Response(throwable);
+            },
+            oAuth2Response -> {
+                endpoint.onResponse();
+                inFlight.stop();
+                releaseConcurrencySlot(limiter, start, oAuth2Response.getThrowable());
+                handler.handle(oAuth2Response);
+            }
+        );
+
+        final RequestOptions reqOptions = introspectionRequests.get(endpoint);
+        logger.debug("Introspect access token by requesting {}", reqOptions.getURI());
+
+        endpoint
+            .getHttpClient()
+            .request(reqOptions)
+            .compose(request -> {
+                // the request is obtained once a connection of the pool is available
+                metrics.recordPoolWait(Operation.INTROSPECT, System.nanoTime() - start);
+                if (!responseHandler.watch(request)) {
+                    // the call expired while waiting for a connection, the request is reset rather than sent
+                    return Future.failedFuture(RequestTimeout.expiredException());
                 }
+                if (onRequest != null) {
+                    onRequest.handle(request);
+                }
+                request.putHeader(REQUEST_ID_HEADER, requestId(callOptions));
+                // the body is read as soon as the response is received, on the context of the connection
+                return request.send(tokenForm(accessToken))
+                    .compose(response ->
+                        response.body().map(buffer -> introspectionResponse(accessToken, response.statusCode(), buffer))
+                    );
+            })
+            .onComplete(ar -> {
+                if (ar.succeeded()) {
+                    // recorded only if the response completes the call, not once the call has expired
+                    CallResult<OAuth2Response> result = ar.result();
+                    responseHandler.handle(result.response(), () -> recordCallResult(Operation.INTROSPECT, endpoint, start, result));
+                } else {
+                    responseHandler.fail(ar.cause());
+                }
+            });
+    }
+
+    /**
+     * Reads the response of the introspection endpoint, and caches the introspection result. The outcome of the call is recorded by
+     * the caller, once the call completes with this result.
+     */
+    private CallResult<OAuth2Response> introspectionResponse(String accessToken, int statusCode, Buffer buffer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("AM Introspection endpoint returns a response with a {} status code", statusCode);
+        }
+
+        if (statusCode != HttpStatusCode.OK_200) {
+            logger.error("An error occurs while checking access token. Request ends with status {}: {}", statusCode, buffer.toString());
+            return new CallResult<>(
+                new OAuth2Response(new UnexpectedResponseException("An error occurs while checking access token", statusCode)),
+                statusCode,
+                Outcome.NON_200
+            );
+        }
+
+        if (configuration().getVersion() == OAuth2ResourceConfiguration.Version.V1_X) {
+            IntrospectionResponse oAuth2Response = new IntrospectionResponse(true, buffer, null);
+            if (isIntrospectionCacheEnabled()) {
+                cacheIntrospection(accessToken, oAuth2Response, expiration(oAuth2Response));
+            }
+            return new CallResult<>(oAuth2Response, statusCode, Outcome.ACTIVE);
+        }
+
+        // Introspection Response from AM v2 always returns HTTP 200
+        // with an "active" boolean indicator of whether or not the presented token is currently active.
+        // retrieve active indicator
+        IntrospectionClaims claims;
+        try {
+            claims = IntrospectionClaims.parse(buffer);
+        } catch (DecodeException ex) {
+            // as unexpected as an error status
+            logger.error("An error occurs while checking access token. The introspection response can't be read", ex);
+            return new CallResult<>(
+                new OAuth2Response(new UnexpectedResponseException("An error occurs while checking access token", statusCode)),
+                statusCode,
+                Outcome.NON_200
             );
+        }
+
+        if (!claims.isActive()) {
+            // never serve a stale active result of a token known as inactive
+            invalidateIntrospection(accessToken);
+            OAuth2Response oAuth2Response = new OAuth2Response(false, INVALID_ACCESS_TOKEN_PAYLOAD);
+            if (negativeIntrospectionCache != null) {
+                negativeIntrospectionCache.put(accessToken, oAuth2Response, null);
+            }
+            return new CallResult<>(oAuth2Response, statusCode, Outcome.INACTIVE);
+        }
+
+        OAuth2Response oAuth2Response = new IntrospectionResponse(true, buffer, claims);
+        cacheIntrospection(accessToken, oAuth2Response, claims.getExpiration());
+        return new CallResult<>(oAuth2Response, statusCode, Outcome.ACTIVE);
     }
 
     @Override
     public void userInfo(String accessToken, Handler<UserInfoResponse> responseHandler) {
-        logger.debug("Get userinfo from {}", userInfoEndpointURI);
+        userInfo(accessToken, CallOptions.DEFAULT, responseHandler);
+    }
 
-        final RequestOptions reqOptions = new RequestOptions()
-            .setMethod(HttpMethod.GET)
-            .setURI(userInfoEndpointURI)
-            .putHeader(HttpHeaders.USER_AGENT, userAgent)
-            .putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()))
-            .putHeader(HttpHeaders.AUTHORIZATION, AUTHORIZATION_HEADER_BEARER_SCHEME + accessToken)
-            .putHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+    /**
+     * Same as {@link #userInfo(String, Handler)}, with options such as the remaining time budget of the caller.
+     */
+    public void userInfo(String accessToken, CallOptions callOptions, Handler<UserInfoResponse> responseHandler) {
+        userInfo(accessToken, callOptions, callOptions.getCancellation(), responseHandler);
+    }
 
-        httpClient
-            .request(reqOptions)
-            .onFailure(
-                new io.vertx.core.Handler<Throwable>() {
-                    @Override
-                    public void handle(Throwable event) {
-                        logger.error("An error occurs while getting userinfo from access token", event);
-                        responseHandler.handle(new UserInfoResponse(event));
+    /**
+     * Same as {@link #userInfo(String, Handler)}, emitting the userinfo of the token, or the error of the call to AM. Disposing the
+     * subscription aborts the call to AM, unless other callers are waiting for the same token. The cancellation of the
+     * {@link CallOptions} also aborts the call, emitting a {@link RequestCancelledException}.
+     */
+    public Maybe<UserInfoResponse> rxUserInfo(String accessToken) {
+        return rxUserInfo(accessToken, CallOptions.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #rxUserInfo(String)}, with options such as the remaining time budget of the caller.
+     */
+    public Maybe<UserInfoResponse> rxUserInfo(String accessToken, CallOptions callOptions) {
+        return Maybe.create(emitter -> {
+            final Cancellation cancellation = subscriptionCancellation(callOptions);
+            emitter.setCancellable(cancellation::cancel);
+            // a cancelled caller is not notified by the call, the subscriber is terminated here, unless it has been disposed
+            cancellation.onCancel(() -> emitter.tryOnError(new RequestCancelledException(CANCELLED_MESSAGE)));
+            if (emitter.isDisposed()) {
+                // cancelled before the subscription
+                return;
+            }
+            userInfo(
+                accessToken,
+                callOptions,
+                cancellation,
+                userInfoResponse -> {
+                    if (userInfoResponse.getThrowable() != null) {
+                        emitter.tryOnError(userInfoResponse.getThrowable());
+                    } else {
+                        emitter.onSuccess(userInfoResponse);
                     }
                 }
-            )
-            .onSuccess(
-                new io.vertx.core.Handler<HttpClientRequest>() {
-                    @Override
-                    public void handle(HttpClientRequest request) {
-                        request
-                            .response(
-                                new io.vertx.core.Handler<AsyncResult<HttpClientResponse>>() {
-                                    @Override
-                                    public void handle(AsyncResult<HttpClientResponse> asyncResponse) {
-                                        if (asyncResponse.failed()) {
-                                            logger.error("An error occurs while getting userinfo from access token", asyncResponse.cause());
-                                            responseHandler.handle(new UserInfoResponse(asyncResponse.cause()));
-                                        } else {
-                                            final HttpClientResponse response = asyncResponse.result();
-                                            response.bodyHandler(buffer -> {
-                                                logger.debug(
-                                                    "Userinfo endpoint returns a response with a {} status code",
-                                                    response.statusCode()
-                                                );
-
-                                                if (response.statusCode() == HttpStatusCode.OK_200) {
-                                                    responseHandler.handle(new UserInfoResponse(true, buffer.toString()));
-                                                } else {
-                                                    logger.error(
-                                                        "An error occurs while getting userinfo from access token. Request ends with status {}: {}",
-                                                        response.statusCode(),
-                                                        buffer.toString()
-                                                    );
-                                                    responseHandler.handle(
-                                                        new UserInfoResponse(
-                                                            new OAuth2ResourceException(
-                                                                "An error occurs while getting userinfo from access token"
-                                                            )
-                                                        )
-                                                    );
-                                                }
-                                            });
-                                        }
-                                    }
-                                }
-                            )
-                            .exceptionHandler(
-                                new io.vertx.core.Handler<Throwable>() {
-                                    @Override
-                                    public void handle(Throwable event) {
-                                        logger.error("An error occurs while getting userinfo from access token", event);
-                                        responseHandler.handle(new UserInfoResponse(event));
-                                    }
-                                }
-                            )
-                            .end();
-                    }
+            );
+        });
+    }
+
+    /**
+     * @param cancellation the cancellation of the caller, or <code>null</code> if it can't cancel.
+     */
+    private void userInfo(
+        String accessToken,
+        CallOptions callOptions,
+        Cancellation cancellation,
+        Handler<UserInfoResponse> responseHandler
+    ) {
+        if (userInfoCache != null) {
+            UserInfoResponse cachedResponse = userInfoCache.get(accessToken);
+            if (cachedResponse != null) {
+                logger.debug("Userinfo retrieved from cache");
+                metrics.recordCacheHit(AccessManagementMetrics.Cache.USERINFO);
+                responseHandler.handle(cachedResponse);
+                return;
+            }
+            metrics.recordCacheMiss(AccessManagementMetrics.Cache.USERINFO);
+        }
+
+        userInfoFlight.execute(
+            accessToken,
+            cancellation,
+            withCallerDeadline(callOptions, cancellation, responseHandler, UserInfoResponse::new),
+            (flightCancellation, handler) -> doUserInfo(accessToken, callOptions, flightCancellation, handler)
+        );
+    }
+
+    /**
+     * @param cancellation the cancellation of the call, or <code>null</code> if it can't be cancelled.
+     */
+    private void doUserInfo(String accessToken, CallOptions callOptions, Cancellation cancellation, Handler<UserInfoResponse> handler) {
+        if (cancellation != null && cancellation.isCancelled()) {
+            handler.handle(new UserInfoResponse(new RequestCancelledException(CANCELLED_MESSAGE)));
+            return;
+        }
+
+        final AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+        if (!acquireConcurrencySlot(limiter)) {
+            logger.debug("Userinfo request rejected, the concurrency limit is reached");
+            metrics.recordRejectedCall(Operation.USERINFO, Outcome.LIMIT_EXCEEDED);
+            handler.handle(new UserInfoResponse(new CallRejectedException(LIMIT_EXCEEDED_MESSAGE)));
+            return;
+        }
+
+        if (!acquireCallPermission()) {
+            releaseConcurrencySlot(limiter);
+            logger.debug("Userinfo request rejected, the circuit breaker is open");
+            metrics.recordRejectedCall(Operation.USERINFO, Outcome.CIRCUIT_OPEN);
+            handler.handle(new UserInfoResponse(new CallRejectedException(CIRCUIT_OPEN_MESSAGE)));
+            return;
+        }
+
+        final Endpoint endpoint = endpointGroup.select();
+        final long start = System.nanoTime();
+        endpoint.onRequest();
+        final LongTaskTimer.Sample inFlight = metrics.startCall(Operation.USERINFO);
+
+        final TimeoutOptions timeoutOptions = configuration().getUserInfoTimeoutOptions();
+        final RequestTimeout<UserInfoResponse> responseHandler = new RequestTimeout<>(
+            vertx,
+            timeout(timeoutOptions, callOptions),
+            cancellation,
+            throwable -> {
+                recordCallFailure(Operation.USERINFO, endpoint, start, throwable);
+                return new UserInfoResponse(throwable);
+            },
+            userInfoResponse -> {
+                endpoint.onResponse();
+                inFlight.stop();
+                releaseConcurrencySlot(limiter, start, userInfoResponse.getThrowable());
+                handler.handle(userInfoResponse);
+            }
+        );
+
+        final RequestOptions reqOptions = userInfoRequests.get(endpoint);
+        logger.debug("Get userinfo from {}", reqOptions.getURI());
+
+        endpoint
+            .getHttpClient()
+            .request(reqOptions)
+            .compose(request -> {
+                // the request is obtained once a connection of the pool is available
+                metrics.recordPoolWait(Operation.USERINFO, System.nanoTime() - start);
+                if (!responseHandler.watch(request)) {
+                    // the call expired while waiting for a connection, the request is reset rather than sent
+                    return Future.failedFuture(RequestTimeout.expiredException());
                 }
+                request.putHeader(HttpHeaderNames.AUTHORIZATION, AUTHORIZATION_HEADER_BEARER_SCHEME + accessToken);
+                request.putHeader(REQUEST_ID_HEADER, requestId(callOptions));
+                // the body is read as soon as the response is received, on the context of the connection
+                return request.send()
+                    .compose(response ->
+                        response.body().map(buffer -> userInfoResponse(accessToken, response.statusCode(), buffer))
+                    );
+            })
+            .onComplete(ar -> {
+                if (ar.succeeded()) {
+                    // recorded only if the response completes the call, not once the call has expired
+                    CallResult<UserInfoResponse> result = ar.result();
+                    responseHandler.handle(result.response(), () -> recordCallResult(Operation.USERINFO, endpoint, start, result));
+                } else {
+                    responseHandler.fail(ar.cause());
+                }
+            });
+    }
+
+    /**
+     * Reads the response of the userinfo endpoint, and caches the userinfo. The outcome of the call is recorded by the caller, once
+     * the call completes with this result.
+     */
+    private CallResult<UserInfoResponse> userInfoResponse(String accessToken, int statusCode, Buffer buffer) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Userinfo endpoint returns a response with a {} status code", statusCode);
+        }
+
+        if (statusCode != HttpStatusCode.OK_200) {
+            logger.error(
+                "An error occurs while getting userinfo from access token. Request ends with status {}: {}",
+                statusCode,
+                buffer.toString()
             );
+            UnexpectedResponseException error = new UnexpectedResponseException(
+                "An error occurs while getting userinfo from access token",
+                statusCode
+            );
+            return new CallResult<>(new UserInfoResponse(error), statusCode, Outcome.NON_200);
+        }
+
+        UserInfoResponse userInfoResponse = new UserInfoResponse(true, buffer.toString());
+        if (userInfoCache != null) {
+            userInfoCache.put(accessToken, userInfoResponse);
+        }
+        return new CallResult<>(userInfoResponse, statusCode, Outcome.SUCCESS);
+    }
+
+    /**
+     * @return the <code>token=...</code> form body, written straight into a buffer of the right size.
+     */
+    @SuppressWarnings("deprecation") // Vert.x 4 has no other way to wrap a ByteBuf
+    private static Buffer tokenForm(String accessToken) {
+        ByteBuf form = Unpooled.buffer(TOKEN_FORM_PREFIX.length + ByteBufUtil.utf8Bytes(accessToken));
+        form.writeBytes(TOKEN_FORM_PREFIX);
+        ByteBufUtil.writeUtf8(form, accessToken);
+        return Buffer.buffer(form);
+    }
+
+    private static void applyTimeouts(RequestOptions reqOptions, TimeoutOptions timeoutOptions) {
+        if (timeoutOptions == null) {
+            return;
+        }
+        if (timeoutOptions.getConnectTimeout() > 0) {
+            reqOptions.setConnectTimeout(timeoutOptions.getConnectTimeout());
+        }
+        if (timeoutOptions.getIdleTimeout() > 0) {
+            reqOptions.setIdleTimeout(timeoutOptions.getIdleTimeout());
+        }
+    }
+
+    /**
+     * @return the overall timeout of a call to AM: the configured one, shortened to the remaining time budget of the caller.
+     */
+    private static long timeout(TimeoutOptions timeoutOptions, CallOptions callOptions) {
+        long timeout = timeoutOptions != null ? timeoutOptions.getTimeout() : 0;
+        if (callOptions.getTimeout() > 0 && (timeout <= 0 || callOptions.getTimeout() < timeout)) {
+            timeout = callOptions.getTimeout();
+        }
+        return timeout;
+    }
+
+    /**
+     * @return the cancellation of a subscription, also cancelled with the cancellation of the caller if any.
+     */
+    private static Cancellation subscriptionCancellation(CallOptions callOptions) {
+        final Cancellation cancellation = new Cancellation();
+        if (callOptions.getCancellation() != null) {
+            final Cancellation.Registration registration = callOptions.getCancellation().onCancel(cancellation::cancel);
+            cancellation.onCancel(registration::unregister);
+        }
+        return cancellation;
+    }
+
+    /**
+     * Notifies the caller with an error once its time budget is elapsed, even if it is waiting for a call started by another caller.
+     * A cancelled caller is not notified anymore.
+     */
+    private <T> Handler<T> withCallerDeadline(
+        CallOptions callOptions,
+        Cancellation cancellation,
+        Handler<T> handler,
+        Function<Throwable, T> onTimeout
+    ) {
+        if (callOptions.getTimeout() <= 0) {
+            return handler;
+        }
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final long timerId = vertx.setTimer(
+            callOptions.getTimeout(),
+            id -> {
+                if (done.compareAndSet(false, true)) {
+                    handler.handle(onTimeout.apply(new TimeoutException("No response from AM within " + callOptions.getTimeout() + "ms")));
+                }
+            }
+        );
+        if (cancellation != null) {
+            cancellation.onCancel(() -> {
+                if (done.compareAndSet(false, true)) {
+                    vertx.cancelTimer(timerId);
+                }
+            });
+        }
+        return result -> {
+            if (done.compareAndSet(false, true)) {
+                vertx.cancelTimer(timerId);
+                handler.handle(result);
+            }
+        };
+    }
+
+    private static Long expiration(IntrospectionResponse introspection) {
+        try {
+            return introspection.getClaims().getExpiration();
+        } catch (DecodeException ex) {
+            // AM V1_X check_token payload is not guaranteed to be a JSON object, fallback to the maximum time to live
+            return null;
+        }
+    }
+
+    private static Long expiration(String introspection) {
+        try {
+            return IntrospectionClaims.parse(Buffer.buffer(introspection)).getExpiration();
+        } catch (DecodeException ex) {
+            // AM V1_X check_token payload is not guaranteed to be a JSON object, fallback to the maximum time to live
+            return null;
+        }
+    }
+
+    private static Long expiration(JsonObject introspection) {
+        return introspection.getValue(INTROSPECTION_EXPIRATION_CLAIM) instanceof Number exp ? exp.longValue() : null;
     }
 
     @Override
@@ -353,12 +1666,23 @@ public class OAuth2AMResource extends OAuth2Resource<OAuth2ResourceConfiguration
 
     @Override
     public OAuth2ResourceMetadata getProtectedResourceMetadata(String protectedResourceUri, List<String> scopesSupported) {
-        URI authServerUri = URI.create(configuration().getServerURL() + "/" + configuration().getSecurityDomain() + "/oidc");
-        String authorizationServer = authServerUri.normalize().toString().replaceAll("/+$", "");
         return new OAuth2ResourceMetadata(
             protectedResourceUri,
-            List.of(authorizationServer),
+            List.of(authorizationServer()),
             scopesSupported != null ? scopesSupported : List.of()
         );
     }
+
+    /**
+     * @return the OpenID Connect base URL of the security domain, which is also the issuer of the tokens.
+     */
+    private String authorizationServer() {
+        URI authServerUri = URI.create(configuration().getServerURL() + "/" + configuration().getSecurityDomain() + "/oidc");
+        return authServerUri.normalize().toString().replaceAll("/+$", "");
+    }
+
+    /**
+     * Response of a call to AM, along with what is needed to record the outcome of the call.
+     */
+    private record CallResult<T>(T response, int statusCode, Outcome outcome) {}
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import io.gravitee.resource.oauth2.am.introspection.IntrospectionClaims;
+import io.gravitee.resource.oauth2.am.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Secondary index of the entries of a cache, by token hash, subject and client id, so that the entries of a revoked token, user or
+ * application can be found without the access tokens.
+ *
+ * The token hash is the {@link TokenHasher#sha256Key(byte[])} of the access token: the index never holds a value which could be
+ * computed from a token without the secret.
+ *
+ * @author GraviteeSource Team
+ */
+final class ClaimsIndex {
+
+    private final TokenHasher hasher;
+
+    private final ConcurrentMap<TokenKey, TokenKey> byTokenHash = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<TokenKey>> bySubject = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<TokenKey>> byClientId = new ConcurrentHashMap<>();
+
+    ClaimsIndex(TokenHasher hasher) {
+        this.hasher = hasher;
+    }
+
+    /**
+     * Values under which an entry is indexed.
+     */
+    record Keys(TokenKey tokenHash, String subject, String clientId) {}
+
+    TokenKey tokenHash(String accessToken) {
+        return hasher.sha256Key(accessToken);
+    }
+
+    /**
+     * @param sha256 the SHA-256 of an access token.
+     * @throws IllegalArgumentException if the value is not a SHA-256 digest.
+     */
+    TokenKey tokenHash(byte[] sha256) {
+        return hasher.sha256Key(sha256);
+    }
+
+    /**
+     * @param tokenHash the token hash of the access token, or <code>null</code> if it is not known.
+     */
+    static Keys keys(TokenKey tokenHash, OAuth2Response response) {
+        if (response instanceof IntrospectionResponse introspectionResponse) {
+            try {
+                return keys(tokenHash, introspectionResponse.getClaims());
+            } catch (DecodeException ex) {
+                return new Keys(tokenHash, null, null);
+            }
+        }
+        return keys(tokenHash, response.getPayload());
+    }
+
+    /**
+     * @param payload the JSON payload holding the <code>sub</code> and <code>client_id</code> claims, if any.
+     */
+    static Keys keys(TokenKey tokenHash, String payload) {
+        try {
+            return keys(tokenHash, payload != null ? IntrospectionClaims.parse(Buffer.buffer(payload)) : null);
+        } catch (DecodeException ex) {
+            // AM V1_X check_token payload is not guaranteed to be a JSON object, the entry is only indexed by token hash
+            return new Keys(tokenHash, null, null);
+        }
+    }
+
+    private static Keys keys(TokenKey tokenHash, IntrospectionClaims claims) {
+        return new Keys(tokenHash, claims != null ? claims.getSubject() : null, claims != null ? claims.getClientId() : null);
+    }
+
+    void add(TokenKey key, Keys keys) {
+        if (keys.tokenHash() != null) {
+            byTokenHash.put(keys.tokenHash(), key);
+        }
+        add(bySubject, keys.subject(), key);
+        add(byClientId, keys.clientId(), key);
+    }
+
+    void remove(TokenKey key, Keys keys) {
+        if (keys.tokenHash() != null) {
+            byTokenHash.remove(keys.tokenHash(), key);
+        }
+        remove(bySubject, keys.subject(), key);
+        remove(byClientId, keys.clientId(), key);
+    }
+
+    TokenKey byTokenHash(TokenKey tokenHash) {
+        return byTokenHash.get(tokenHash);
+    }
+
+    Set<TokenKey> bySubject(String subject) {
+        return bySubject.getOrDefault(subject, Set.of());
+    }
+
+    Set<TokenKey> byClientId(String clientId) {
+        return byClientId.getOrDefault(clientId, Set.of());
+    }
+
+    void clear() {
+        byTokenHash.clear();
+        bySubject.clear();
+        byClientId.clear();
+    }
+
+    private static void add(ConcurrentMap<String, Set<TokenKey>> index, String value, TokenKey key) {
+        if (value != null) {
+            index.compute(
+                value,
+                (v, keys) -> {
+                    Set<TokenKey> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                    updated.add(key);
+                    return updated;
+                }
+            );
+        }
+    }
+
+    private static void remove(ConcurrentMap<String, Set<TokenKey>> index, String value, TokenKey key) {
+        if (value != null) {
+            index.computeIfPresent(
+                value,
+                (v, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                }
+            );
+        }
+    }
+}
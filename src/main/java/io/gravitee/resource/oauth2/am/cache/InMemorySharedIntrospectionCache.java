@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.gravitee.gateway.api.handler.Handler;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SharedIntrospectionCache} held in the memory of the node, shared by the resources which refer to the same cache name.
+ *
+ * It does not span several gateway nodes, but lets the APIs of a node which declare their own resource for the same security domain
+ * and client share their introspection results. The cache is released once the last resource using it is stopped.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemorySharedIntrospectionCache implements SharedIntrospectionCache {
+
+    private static final Map<String, InMemorySharedIntrospectionCache> CACHES = new HashMap<>();
+
+    private final String name;
+
+    private final Cache<String, Entry> cache;
+
+    private int references;
+
+    InMemorySharedIntrospectionCache(String name, long maxSize, Ticker ticker) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new EntryExpiry()).ticker(ticker).build();
+    }
+
+    /**
+     * @return the cache registered under the given name, created with the given maximum number of entries if there is none yet.
+     * Each call must be balanced by a call to {@link #close()}.
+     */
+    public static InMemorySharedIntrospectionCache acquire(String name, long maxSize) {
+        synchronized (CACHES) {
+            InMemorySharedIntrospectionCache sharedCache = CACHES.computeIfAbsent(
+                name,
+                n -> new InMemorySharedIntrospectionCache(n, maxSize, Ticker.systemTicker())
+            );
+            sharedCache.references++;
+            return sharedCache;
+        }
+    }
+
+    @Override
+    public void get(String key, Handler<String> handler) {
+        Entry entry = cache.getIfPresent(key);
+        handler.handle(entry != null ? entry.payload() : null);
+    }
+
+    @Override
+    public void put(String key, String payload, long timeToLive) {
+        if (timeToLive > 0) {
+            cache.put(key, new Entry(payload, TimeUnit.MILLISECONDS.toNanos(timeToLive)));
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void close() {
+        synchronized (CACHES) {
+            if (--references <= 0 && CACHES.remove(name, this)) {
+                cache.invalidateAll();
+            }
+        }
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private record Entry(String payload, long timeToLive) {}
+
+    private static class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.timeToLive();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.timeToLive();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,553 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy.VarExpiration;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.gravitee.resource.oauth2.am.configuration.IntrospectionCacheOptions;
+import io.gravitee.resource.oauth2.am.configuration.NegativeCacheOptions;
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of introspection results, keyed by the {@link TokenKey} of the access token.
+ *
+ * Each entry expires at the earliest of the configured maximum time to live and the <code>exp</code> claim returned by AM, when known.
+ * With a stale-if-error grace period, the entry is kept longer (still never past <code>exp</code>) and can be served as a fallback
+ * by {@link #getStale(String)} when AM fails.
+ *
+ * With refresh-ahead, an entry accessed often is handed to a refresher once a part of its time to live is elapsed, so that it can be
+ * re-validated in the background while the cached result is still served.
+ *
+ * With an {@link OffHeapStore}, the payloads are kept off-heap and only small index entries stay on-heap. An entry is then also
+ * evicted as soon as its payload is overwritten by newer ones, and each read decodes a new {@link OAuth2Response}.
+ *
+ * Once {@link #indexClaims(TokenHasher)} is called, the entries can also be invalidated by token hash, subject or client id, when a token,
+ * a user or an application is revoked.
+ *
+ * @author GraviteeSource Team
+ */
+public class IntrospectionCache {
+
+    /**
+     * Upper bound of the size of a payload read from a snapshot, so that a corrupted length can't exhaust the memory.
+     */
+    private static final int MAX_SNAPSHOT_PAYLOAD = 16 * 1024 * 1024;
+
+    private final Cache<TokenKey, Entry> cache;
+
+    private final long maxTimeToLive;
+
+    private final long staleIfError;
+
+    private final Ticker ticker;
+
+    private final OffHeapStore store;
+
+    private final SipHash keyHash;
+
+    private final long maxSize;
+
+    private final LongSupplier clock;
+
+    private final LongAdder staleHits = new LongAdder();
+
+    private int refreshAheadThreshold;
+
+    private int refreshAheadMinHits;
+
+    private Consumer<String> refresher;
+
+    private volatile Runnable evictionListener;
+
+    private volatile ClaimsIndex index;
+
+    public IntrospectionCache(IntrospectionCacheOptions options) {
+        this(options, TokenKey.PROCESS_HASH);
+    }
+
+    /**
+     * @param keyHash the hash function computing the {@link TokenKey} of the access tokens.
+     */
+    public IntrospectionCache(IntrospectionCacheOptions options, SipHash keyHash) {
+        this(
+            options.getMaxSize(),
+            options.getMaxTimeToLive(),
+            options.getStaleIfError(),
+            Ticker.systemTicker(),
+            System::currentTimeMillis,
+            options.getOffHeapCapacity() > 0 ? new OffHeapStore(options.getOffHeapCapacity()) : null,
+            keyHash
+        );
+    }
+
+    public IntrospectionCache(NegativeCacheOptions options) {
+        this(options.getMaxSize(), options.getTimeToLive());
+    }
+
+    /**
+     * @param maxSize the maximum number of entries.
+     * @param maxTimeToLive the maximum time to live of an entry, in seconds.
+     */
+    public IntrospectionCache(long maxSize, long maxTimeToLive) {
+        this(maxSize, maxTimeToLive, 0);
+    }
+
+    /**
+     * @param maxSize the maximum number of entries.
+     * @param maxTimeToLive the maximum time to live of an entry, in seconds.
+     * @param staleIfError the grace period during which an entry can still be served as a fallback, in seconds.
+     */
+    public IntrospectionCache(long maxSize, long maxTimeToLive, long staleIfError) {
+        this(maxSize, maxTimeToLive, staleIfError, Ticker.systemTicker(), System::currentTimeMillis, null);
+    }
+
+    IntrospectionCache(long maxSize, long maxTimeToLive, long staleIfError, Ticker ticker, LongSupplier clock, OffHeapStore store) {
+        this(maxSize, maxTimeToLive, staleIfError, ticker, clock, store, TokenKey.PROCESS_HASH);
+    }
+
+    IntrospectionCache(
+        long maxSize,
+        long maxTimeToLive,
+        long staleIfError,
+        Ticker ticker,
+        LongSupplier clock,
+        OffHeapStore store,
+        SipHash keyHash
+    ) {
+        this.maxSize = maxSize;
+        this.store = store;
+        this.keyHash = keyHash;
+        this.maxTimeToLive = TimeUnit.SECONDS.toMillis(maxTimeToLive);
+        this.staleIfError = TimeUnit.SECONDS.toMillis(Math.max(0, staleIfError));
+        this.ticker = ticker;
+        this.clock = clock;
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry())
+                .evictionListener((TokenKey key, Entry entry, RemovalCause cause) -> {
+                    unindex(key, entry);
+                    notifyEviction();
+                })
+                .ticker(ticker)
+                .build();
+        if (store != null) {
+            store.onOverwrite(this::evictOverwritten);
+        }
+    }
+
+    /**
+     * @return the cached introspection result of the access token, or <code>null</code> if there is none.
+     */
+    public OAuth2Response get(String accessToken) {
+        TokenKey key = keyHash.hash128(accessToken);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+
+        long now = ticker.read();
+        if (now >= entry.freshUntil()) {
+            return null;
+        }
+
+        OAuth2Response response = response(entry);
+        if (response == null) {
+            return null;
+        }
+
+        if (refresher != null && entry.hits().incrementAndGet() >= refreshAheadMinHits && now >= entry.refreshAt()) {
+            if (entry.refreshing().compareAndSet(false, true)) {
+                refresher.accept(accessToken);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Enables the refresh-ahead of the entries: an entry read at least <code>minHits</code> times is given to the refresher once
+     * <code>threshold</code> percent of its time to live is elapsed. The refresher is called at most once per entry, it is expected
+     * to {@link #put(String, OAuth2Response, Long)} the new result, or to {@link #invalidate(String)} the entry.
+     *
+     * @param threshold the percentage of the time to live after which an entry is refreshed, <code>0</code> disables the refresh-ahead.
+     * @param minHits the number of reads from which an entry is considered as worth refreshing.
+     * @param refresher the consumer of the access tokens to refresh, it must not block.
+     */
+    public void refreshAhead(int threshold, int minHits, Consumer<String> refresher) {
+        if (threshold <= 0 || threshold >= 100) {
+            this.refresher = null;
+            return;
+        }
+        this.refreshAheadThreshold = threshold;
+        this.refreshAheadMinHits = minHits;
+        this.refresher = refresher;
+    }
+
+    /**
+     * Registers a listener notified each time an entry is evicted, because of the size bound or of its expiration.
+     */
+    public void onEviction(Runnable listener) {
+        this.evictionListener = listener;
+    }
+
+    private void notifyEviction() {
+        Runnable listener = evictionListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * To be called when AM fails: the result is served whether it is fresh or within its stale-if-error grace period.
+     *
+     * @return the cached introspection result of the access token, or <code>null</code> if there is none.
+     */
+    public OAuth2Response getStale(String accessToken) {
+        TokenKey key = keyHash.hash128(accessToken);
+        Entry entry = cache.getIfPresent(key);
+        OAuth2Response response = entry != null ? response(entry) : null;
+        if (response != null) {
+            staleHits.increment();
+        }
+        return response;
+    }
+
+    private OAuth2Response response(Entry entry) {
+        if (entry.payload() == null) {
+            return entry.response();
+        }
+
+        String payload = store.get(entry.payload());
+        if (payload == null) {
+            // overwritten by newer payloads while being read, the entry is being evicted
+            return null;
+        }
+        return new OAuth2Response(entry.success(), payload);
+    }
+
+    /**
+     * Evicts the entry whose payload has been overwritten in the off-heap store, unless it has been replaced since.
+     */
+    private void evictOverwritten(OffHeapStore.Ref ref) {
+        TokenKey key = ref.owner();
+        Entry entry = cache.asMap().get(key);
+        if (entry != null && entry.payload() == ref && cache.asMap().remove(key, entry)) {
+            unindex(key, entry);
+            notifyEviction();
+        }
+    }
+
+    public boolean isStaleIfErrorEnabled() {
+        return staleIfError > 0;
+    }
+
+    /**
+     * @return the number of results served by {@link #getStale(String)}.
+     */
+    public long staleHitCount() {
+        return staleHits.sum();
+    }
+
+    /**
+     * Caches the introspection result of the access token.
+     *
+     * @param expiresAt the <code>exp</code> claim of the token (in seconds since epoch), or <code>null</code> if AM did not return it.
+     */
+    public void put(String accessToken, OAuth2Response response, Long expiresAt) {
+        long timeToLive = maxTimeToLive;
+        long retention = maxTimeToLive + staleIfError;
+        if (expiresAt != null) {
+            long untilExpiration = TimeUnit.SECONDS.toMillis(expiresAt) - clock.getAsLong();
+            timeToLive = Math.min(timeToLive, untilExpiration);
+            retention = Math.min(retention, untilExpiration);
+        }
+
+        if (timeToLive > 0) {
+            final ClaimsIndex claimsIndex = index;
+            TokenKey tokenHash = claimsIndex != null ? claimsIndex.tokenHash(accessToken) : null;
+            store(keyHash.hash128(accessToken), tokenHash, response, timeToLive, retention, false);
+        }
+    }
+
+    /**
+     * @param tokenHash the token hash under which the entry is indexed, or <code>null</code> if it is not known.
+     * @param timeToLive the time (in milliseconds) during which the entry is fresh, it may be negative if it is only retained as a
+     * stale-if-error fallback.
+     * @param retention the time (in milliseconds) the entry is kept.
+     */
+    private void store(TokenKey key, TokenKey tokenHash, OAuth2Response response, long timeToLive, long retention, boolean ifAbsent) {
+        final ClaimsIndex claimsIndex = index;
+        long now = ticker.read();
+        long freshUntil = now + TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        long refreshAt = now + TimeUnit.MILLISECONDS.toNanos(timeToLive * refreshAheadThreshold / 100);
+        OffHeapStore.Ref payload = store != null && response.getPayload() != null ? store.put(response.getPayload(), key) : null;
+        Entry entry = new Entry(
+            payload != null ? null : response,
+            payload,
+            response.isSuccess(),
+            claimsIndex != null ? ClaimsIndex.keys(tokenHash, response) : null,
+            freshUntil,
+            TimeUnit.MILLISECONDS.toNanos(retention),
+            refreshAt,
+            new AtomicInteger(),
+            new AtomicBoolean()
+        );
+        if (ifAbsent) {
+            if (cache.asMap().putIfAbsent(key, entry) == null) {
+                index(key, entry);
+            }
+        } else {
+            unindex(key, cache.asMap().put(key, entry));
+            index(key, entry);
+        }
+    }
+
+    /**
+     * Indexes the entries put from now on by token hash, subject and client id, so that they can be invalidated by
+     * {@link #invalidateByTokenHash(byte[])}, {@link #invalidateBySubject(String)} and {@link #invalidateByClientId(String)}.
+     *
+     * @param hasher the hasher of the token hashes, it must be the same across restarts for the restored entries to be found.
+     */
+    public void indexClaims(TokenHasher hasher) {
+        if (index == null) {
+            index = new ClaimsIndex(hasher);
+        }
+    }
+
+    /**
+     * @param sha256 the SHA-256 of the access token.
+     * @return <code>true</code> if an entry has been invalidated.
+     * @throws IllegalArgumentException if the value is not a SHA-256 digest.
+     */
+    public boolean invalidateByTokenHash(byte[] sha256) {
+        final ClaimsIndex claimsIndex = index;
+        TokenKey key = claimsIndex != null ? claimsIndex.byTokenHash(claimsIndex.tokenHash(sha256)) : null;
+        return key != null && invalidate(key);
+    }
+
+    /**
+     * @return the number of invalidated entries.
+     */
+    public int invalidateBySubject(String subject) {
+        final ClaimsIndex claimsIndex = index;
+        return claimsIndex != null ? invalidate(claimsIndex.bySubject(subject)) : 0;
+    }
+
+    /**
+     * @return the number of invalidated entries.
+     */
+    public int invalidateByClientId(String clientId) {
+        return invalidateByClientId(clientId, tokenHash -> {});
+    }
+
+    /**
+     * Same as {@link #invalidateByClientId(String)}, also giving the token hash of each invalidated entry, so that the other
+     * results cached for the same tokens can be invalidated too.
+     *
+     * @return the number of invalidated entries.
+     */
+    public int invalidateByClientId(String clientId, Consumer<TokenKey> tokenHashes) {
+        final ClaimsIndex claimsIndex = index;
+        return claimsIndex != null ? invalidate(claimsIndex.byClientId(clientId), tokenHashes) : 0;
+    }
+
+    private int invalidate(Set<TokenKey> keys) {
+        return invalidate(keys, tokenHash -> {});
+    }
+
+    private int invalidate(Set<TokenKey> keys, Consumer<TokenKey> tokenHashes) {
+        int invalidated = 0;
+        for (TokenKey key : List.copyOf(keys)) {
+            Entry entry = remove(key);
+            if (entry != null) {
+                invalidated++;
+                if (entry.indexKeys() != null && entry.indexKeys().tokenHash() != null) {
+                    tokenHashes.accept(entry.indexKeys().tokenHash());
+                }
+            }
+        }
+        return invalidated;
+    }
+
+    private boolean invalidate(TokenKey key) {
+        return remove(key) != null;
+    }
+
+    private Entry remove(TokenKey key) {
+        Entry entry = cache.asMap().remove(key);
+        unindex(key, entry);
+        return entry;
+    }
+
+    private void index(TokenKey key, Entry entry) {
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex != null && entry.indexKeys() != null) {
+            claimsIndex.add(key, entry.indexKeys());
+        }
+    }
+
+    private void unindex(TokenKey key, Entry entry) {
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex != null && entry != null && entry.indexKeys() != null) {
+            claimsIndex.remove(key, entry.indexKeys());
+        }
+    }
+
+    /**
+     * Writes the entries which are still retained, with their keys, token hashes and absolute expiration times, so that they can be
+     * restored by {@link #readSnapshot(DataInput, long)} in another process using the same key hash function and token hasher.
+     *
+     * @return the number of written entries.
+     */
+    public int writeSnapshot(DataOutput out) throws IOException {
+        long now = ticker.read();
+        long wallClock = clock.getAsLong();
+        VarExpiration<TokenKey, Entry> expiration = cache.policy().expireVariably().orElseThrow();
+
+        int written = 0;
+        for (Map.Entry<TokenKey, Entry> cached : cache.asMap().entrySet()) {
+            Optional<Duration> retention = expiration.getExpiresAfter(cached.getKey());
+            OAuth2Response response = response(cached.getValue());
+            if (retention.isEmpty() || retention.get().isZero() || response == null || response.getPayload() == null) {
+                continue;
+            }
+
+            byte[] payload = response.getPayload().getBytes(StandardCharsets.UTF_8);
+            ClaimsIndex.Keys indexKeys = cached.getValue().indexKeys();
+            TokenKey tokenHash = indexKeys != null ? indexKeys.tokenHash() : null;
+            out.writeBoolean(true);
+            out.writeLong(cached.getKey().high());
+            out.writeLong(cached.getKey().low());
+            out.writeBoolean(tokenHash != null);
+            if (tokenHash != null) {
+                out.writeLong(tokenHash.high());
+                out.writeLong(tokenHash.low());
+            }
+            out.writeBoolean(response.isSuccess());
+            out.writeLong(wallClock + TimeUnit.NANOSECONDS.toMillis(cached.getValue().freshUntil() - now));
+            out.writeLong(wallClock + retention.get().toMillis());
+            out.writeInt(payload.length);
+            out.write(payload);
+            written++;
+        }
+        out.writeBoolean(false);
+        return written;
+    }
+
+    /**
+     * Restores the entries written by {@link #writeSnapshot(DataOutput)}, dropping the ones which have expired since. The entries
+     * already in the cache are kept.
+     *
+     * @param deadline the {@link System#nanoTime()} after which the remaining entries are skipped.
+     * @return the number of restored entries.
+     */
+    public int readSnapshot(DataInput in, long deadline) throws IOException {
+        int read = 0;
+        while (read < maxSize && in.readBoolean() && System.nanoTime() - deadline < 0) {
+            TokenKey key = new TokenKey(in.readLong(), in.readLong());
+            TokenKey tokenHash = in.readBoolean() ? new TokenKey(in.readLong(), in.readLong()) : null;
+            boolean success = in.readBoolean();
+            long freshUntil = in.readLong();
+            long retainedUntil = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_SNAPSHOT_PAYLOAD) {
+                throw new IOException("Invalid introspection cache snapshot, payload of " + length + " bytes");
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+
+            long wallClock = clock.getAsLong();
+            if (retainedUntil > wallClock) {
+                OAuth2Response response = new OAuth2Response(success, new String(payload, StandardCharsets.UTF_8));
+                store(key, tokenHash, response, freshUntil - wallClock, retainedUntil - wallClock, true);
+                read++;
+            }
+        }
+        return read;
+    }
+
+    public void invalidate(String accessToken) {
+        invalidate(keyHash.hash128(accessToken));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex != null) {
+            claimsIndex.clear();
+        }
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * @param response the cached response, or <code>null</code> if it is stored off-heap.
+     * @param payload the location of the payload of the response stored off-heap.
+     * @param indexKeys the values under which the entry is indexed, <code>null</code> if the claims are not indexed.
+     */
+    private record Entry(
+        OAuth2Response response,
+        OffHeapStore.Ref payload,
+        boolean success,
+        ClaimsIndex.Keys indexKeys,
+        long freshUntil,
+        long timeToLive,
+        long refreshAt,
+        AtomicInteger hits,
+        AtomicBoolean refreshing
+    ) {}
+
+    private static class EntryExpiry implements Expiry<TokenKey, Entry> {
+
+        @Override
+        public long expireAfterCreate(TokenKey key, Entry entry, long currentTime) {
+            return entry.timeToLive();
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenKey key, Entry entry, long currentTime, long currentDuration) {
+            return entry.timeToLive();
+        }
+
+        @Override
+        public long expireAfterRead(TokenKey key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
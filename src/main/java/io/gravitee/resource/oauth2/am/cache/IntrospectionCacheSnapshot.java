@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Local file holding a snapshot of an {@link IntrospectionCache}, so that the validated tokens survive a restart of the resource.
+ *
+ * The snapshot only holds the {@link TokenKey} of the tokens, never the tokens themselves, and is encrypted with AES-GCM: it can
+ * neither be read nor be tampered with without the key. The cache must be keyed by the same hash function across restarts for the
+ * restored entries to be found.
+ *
+ * @author GraviteeSource Team
+ */
+public class IntrospectionCacheSnapshot {
+
+    /**
+     * "AMC2", changed along with the format of the entries.
+     */
+    private static final int MAGIC = 0x414d4332;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Path file;
+
+    private final SecretKeySpec key;
+
+    private final LongSupplier nanoTime;
+
+    /**
+     * @param key the 128, 192 or 256-bit AES key.
+     */
+    public IntrospectionCacheSnapshot(Path file, byte[] key) {
+        this(file, key, System::nanoTime);
+    }
+
+    IntrospectionCacheSnapshot(Path file, byte[] key, LongSupplier nanoTime) {
+        this.file = file;
+        this.key = new SecretKeySpec(key, "AES");
+        this.nanoTime = nanoTime;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Writes the snapshot of the cache, replacing the previous one.
+     *
+     * @return the number of saved entries.
+     */
+    public int save(IntrospectionCache cache) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        createOwnerOnly(tmp);
+
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+
+        int saved;
+        try (OutputStream fileOut = Files.newOutputStream(tmp)) {
+            DataOutputStream header = new DataOutputStream(fileOut);
+            header.writeInt(MAGIC);
+            header.write(nonce);
+
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new CipherOutputStream(fileOut, cipher(Cipher.ENCRYPT_MODE, nonce)))
+            );
+            saved = cache.writeSnapshot(out);
+            out.close();
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return saved;
+    }
+
+    /**
+     * Restores the snapshot into the cache, if there is one.
+     *
+     * The whole snapshot is read and authenticated before its first entry is restored, the restore is skipped altogether if this
+     * takes longer than <code>maxLoadTime</code>.
+     *
+     * @param maxLoadTime the time (in milliseconds) after which the remaining entries are skipped.
+     * @return the number of restored entries.
+     * @throws IOException if the snapshot can't be read, or has not been written with the same key.
+     */
+    public int load(IntrospectionCache cache, long maxLoadTime) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+
+        long deadline = nanoTime.getAsLong() + TimeUnit.MILLISECONDS.toNanos(maxLoadTime);
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            DataInputStream header = new DataInputStream(fileIn);
+            if (header.readInt() != MAGIC) {
+                throw new IOException("Not an introspection cache snapshot: " + file);
+            }
+            byte[] nonce = new byte[NONCE_LENGTH];
+            header.readFully(nonce);
+
+            // the authentication tag is checked before the first entry is returned, the file is read within the deadline
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(
+                    new CipherInputStream(new DeadlineInputStream(fileIn, deadline), cipher(Cipher.DECRYPT_MODE, nonce))
+                )
+            );
+            return cache.readSnapshot(in, deadline);
+        } catch (LoadTimeExceededException ex) {
+            return 0;
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] nonce) throws IOException {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH, nonce));
+            return cipher;
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("Unable to initialize " + TRANSFORMATION, ex);
+        }
+    }
+
+    /**
+     * Stops reading the snapshot once the deadline is exceeded.
+     */
+    private class DeadlineInputStream extends FilterInputStream {
+
+        private final long deadline;
+
+        private DeadlineInputStream(InputStream in, long deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            return super.read(b, off, len);
+        }
+
+        private void checkDeadline() throws LoadTimeExceededException {
+            if (nanoTime.getAsLong() - deadline >= 0) {
+                throw new LoadTimeExceededException();
+            }
+        }
+    }
+
+    private static class LoadTimeExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private LoadTimeExceededException() {
+            super("The introspection cache snapshot could not be read within the maximum load time");
+        }
+    }
+
+    private static void createOwnerOnly(Path path) throws IOException {
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException ex) {
+            Files.createFile(path);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.node.api.cache.Cache;
+import io.gravitee.node.api.cache.CacheConfiguration;
+import io.gravitee.node.api.cache.CacheManager;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SharedIntrospectionCache} backed by a distributed cache of the gateway {@link CacheManager}, so that the introspection
+ * results are shared by all the nodes of the cluster.
+ *
+ * The asynchronous operations of the node cache are used, the event loop is never blocked by a remote cache. A failing lookup is
+ * considered as a miss.
+ *
+ * @author GraviteeSource Team
+ */
+public class NodeSharedIntrospectionCache implements SharedIntrospectionCache {
+
+    private final Logger logger = LoggerFactory.getLogger(NodeSharedIntrospectionCache.class);
+
+    private final Cache<String, String> cache;
+
+    public NodeSharedIntrospectionCache(Cache<String, String> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @param maxSize the maximum number of entries.
+     * @param maxTimeToLive the maximum time to live of an entry, in seconds.
+     */
+    public static NodeSharedIntrospectionCache create(CacheManager cacheManager, String name, long maxSize, long maxTimeToLive) {
+        CacheConfiguration cacheConfiguration = CacheConfiguration
+            .builder()
+            .distributed(true)
+            .maxSize(maxSize)
+            .timeToLiveInMs(TimeUnit.SECONDS.toMillis(maxTimeToLive))
+            .build();
+        return new NodeSharedIntrospectionCache(cacheManager.getOrCreateCache(name, cacheConfiguration));
+    }
+
+    @Override
+    public void get(String key, Handler<String> handler) {
+        cache
+            .rxGet(key)
+            .subscribe(
+                handler::handle,
+                throwable -> {
+                    logger.warn("An error occurs while looking up the shared introspection cache", throwable);
+                    handler.handle(null);
+                },
+                () -> handler.handle(null)
+            );
+    }
+
+    @Override
+    public void put(String key, String payload, long timeToLive) {
+        if (timeToLive > 0) {
+            cache
+                .rxPut(key, payload, timeToLive, TimeUnit.MILLISECONDS)
+                .subscribe(
+                    previous -> {},
+                    throwable -> logger.warn("An error occurs while filling the shared introspection cache", throwable)
+                );
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        cache
+            .rxEvict(key)
+            .subscribe(
+                previous -> {},
+                throwable -> logger.warn("An error occurs while evicting from the shared introspection cache", throwable)
+            );
+    }
+}
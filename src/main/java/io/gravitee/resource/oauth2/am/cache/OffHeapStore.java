@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity off-heap storage of cached payloads, written as a ring into a direct buffer.
+ *
+ * Payloads are appended one after the other and the oldest ones are overwritten once the ring is full: the cache keeps on-heap only
+ * the small {@link Ref} of each payload, which becomes unreadable once overwritten. Writes are serialized while reads are lock-free:
+ * a read copies the payload then checks that it has not been overwritten in the meantime.
+ *
+ * With {@link #onOverwrite(Consumer)}, the references of the overwritten payloads are also handed to a listener as soon as they are
+ * overwritten, so that the cache can evict their entries rather than keeping them until they are read.
+ *
+ * @author GraviteeSource Team
+ */
+public class OffHeapStore {
+
+    private final ByteBuffer buffer;
+
+    private final int capacity;
+
+    /**
+     * Absolute position of the next write, it only grows: the payload at the absolute position <code>p</code> is stored at
+     * <code>p % capacity</code> and is readable as long as <code>writePosition - p <= capacity</code>.
+     */
+    private volatile long writePosition;
+
+    /**
+     * The references of the readable payloads, in write order, only tracked once there is an overwrite listener.
+     */
+    private final ArrayDeque<Ref> written = new ArrayDeque<>();
+
+    private volatile Consumer<Ref> overwriteListener;
+
+    /**
+     * @param capacity the size of the direct buffer, in bytes.
+     */
+    public OffHeapStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Registers a listener notified with the reference of each payload overwritten from now on.
+     */
+    public void onOverwrite(Consumer<Ref> listener) {
+        this.overwriteListener = listener;
+    }
+
+    /**
+     * @return the reference of the stored payload, or <code>null</code> if it is larger than the store.
+     */
+    public Ref put(String payload) {
+        return put(payload, null);
+    }
+
+    /**
+     * @param owner the key of the cache entry holding the payload, handed back to the overwrite listener.
+     * @return the reference of the stored payload, or <code>null</code> if it is larger than the store.
+     */
+    public Ref put(String payload, TokenKey owner) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > capacity) {
+            return null;
+        }
+
+        final Consumer<Ref> listener = overwriteListener;
+        long position;
+        Ref ref;
+        List<Ref> overwritten = null;
+        synchronized (this) {
+            position = writePosition;
+            int offset = (int) (position % capacity);
+            if (offset + bytes.length > capacity) {
+                // never split a payload, skip the end of the ring
+                position += capacity - offset;
+                offset = 0;
+            }
+            // published before the bytes are written, so that concurrent readers of the overwritten payloads detect it
+            writePosition = position + bytes.length;
+            VarHandle.releaseFence();
+            buffer.put(offset, bytes);
+
+            ref = new Ref(position, bytes.length, owner);
+            if (listener != null) {
+                written.addLast(ref);
+                while (!isReadable(written.peekFirst())) {
+                    if (overwritten == null) {
+                        overwritten = new ArrayList<>();
+                    }
+                    overwritten.add(written.pollFirst());
+                }
+            }
+        }
+
+        if (overwritten != null) {
+            // notified outside of the lock, the listener updates the cache
+            overwritten.forEach(listener);
+        }
+        return ref;
+    }
+
+    /**
+     * @return the payload, or <code>null</code> if it has been overwritten.
+     */
+    public String get(Ref ref) {
+        if (!isReadable(ref)) {
+            return null;
+        }
+
+        byte[] bytes = new byte[ref.length()];
+        buffer.get((int) (ref.position() % capacity), bytes);
+        VarHandle.acquireFence();
+        return isReadable(ref) ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private boolean isReadable(Ref ref) {
+        return writePosition - ref.position() <= capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Location of a payload in the store.
+     *
+     * @param owner the key of the cache entry holding the payload, or <code>null</code> if it is not known.
+     */
+    public record Ref(long position, int length, TokenKey owner) {}
+}
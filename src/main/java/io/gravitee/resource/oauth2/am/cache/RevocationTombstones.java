@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.gravitee.resource.oauth2.am.introspection.IntrospectionClaims;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import java.time.Duration;
+
+/**
+ * Recently revoked tokens, users and applications, checked before an introspection result read from the shared cache is accepted.
+ *
+ * The shared cache is keyed by a hash of the access token, its entries can't be found from a subject, a client id or a SHA-256.
+ * A result matching a revocation is then treated as a miss, until the shared entries written before the revocation have expired:
+ * the revocations are forgotten after the maximum time to live of the shared cache.
+ *
+ * @author GraviteeSource Team
+ */
+public class RevocationTombstones {
+
+    private final TokenHasher hasher;
+
+    private final Cache<TokenKey, Boolean> tokenHashes;
+
+    private final Cache<String, Boolean> subjects;
+
+    private final Cache<String, Boolean> clientIds;
+
+    /**
+     * @param hasher the hasher of the token hashes.
+     * @param maxSize the maximum number of revocations of each type.
+     * @param timeToLive the time (in seconds) during which a revocation is remembered.
+     */
+    public RevocationTombstones(TokenHasher hasher, long maxSize, long timeToLive) {
+        this.hasher = hasher;
+        this.tokenHashes = cache(maxSize, timeToLive);
+        this.subjects = cache(maxSize, timeToLive);
+        this.clientIds = cache(maxSize, timeToLive);
+    }
+
+    private static <K> Cache<K, Boolean> cache(long maxSize, long timeToLive) {
+        return Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofSeconds(timeToLive)).build();
+    }
+
+    /**
+     * @param sha256 the SHA-256 of the revoked access token.
+     * @throws IllegalArgumentException if the value is not a SHA-256 digest.
+     */
+    public void revokeTokenHash(byte[] sha256) {
+        tokenHashes.put(hasher.sha256Key(sha256), Boolean.TRUE);
+    }
+
+    public void revokeSubject(String subject) {
+        subjects.put(subject, Boolean.TRUE);
+    }
+
+    public void revokeClientId(String clientId) {
+        clientIds.put(clientId, Boolean.TRUE);
+    }
+
+    /**
+     * @param payload the introspection result of the access token read from the shared cache.
+     * @return <code>true</code> if the token, its user or its application has been revoked recently.
+     */
+    public boolean isRevoked(String accessToken, String payload) {
+        if (tokenHashes.estimatedSize() > 0 && tokenHashes.getIfPresent(hasher.sha256Key(accessToken)) != null) {
+            return true;
+        }
+
+        if (subjects.estimatedSize() == 0 && clientIds.estimatedSize() == 0) {
+            return false;
+        }
+
+        IntrospectionClaims claims;
+        try {
+            claims = IntrospectionClaims.parse(Buffer.buffer(payload));
+        } catch (DecodeException ex) {
+            // AM V1_X check_token payload is not guaranteed to be a JSON object, it can only be revoked by token
+            return false;
+        }
+        return (
+            (claims.getSubject() != null && subjects.getIfPresent(claims.getSubject()) != null) ||
+            (claims.getClientId() != null && clientIds.getIfPresent(claims.getClientId()) != null)
+        );
+    }
+}
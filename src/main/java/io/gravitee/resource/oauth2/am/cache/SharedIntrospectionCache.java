@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import io.gravitee.gateway.api.handler.Handler;
+
+/**
+ * Second-level cache of introspection results, looked up behind the in-memory cache of the node so that a token introspected by a
+ * gateway node is a cache hit on the others.
+ *
+ * Implementations are only given the keys computed by {@link TokenHasher}, never the access tokens themselves, and the introspection
+ * payloads of active tokens, with a time to live which never goes past the <code>exp</code> claim of the token.
+ *
+ * @author GraviteeSource Team
+ */
+public interface SharedIntrospectionCache {
+    /**
+     * Looks up an introspection payload, the call must not block.
+     *
+     * @param key the hashed access token.
+     * @param handler called with the payload, or with <code>null</code> if there is none or if the lookup fails.
+     */
+    void get(String key, Handler<String> handler);
+
+    /**
+     * Stores an introspection payload, the call must not block.
+     *
+     * @param key the hashed access token.
+     * @param payload the introspection payload of the active token.
+     * @param timeToLive the time to live of the entry, in milliseconds.
+     */
+    void put(String key, String payload, long timeToLive);
+
+    /**
+     * Removes the introspection payload of a token which is not active anymore, the call must not block.
+     *
+     * @param key the hashed access token.
+     */
+    void evict(String key);
+
+    /**
+     * Releases the cache when the resource is stopped.
+     */
+    default void close() {}
+}
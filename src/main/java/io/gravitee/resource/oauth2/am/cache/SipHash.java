@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SipHash-2-4 keyed hash function, with 64-bit and 128-bit outputs.
+ *
+ * Strings made of ASCII characters only, like the access tokens, are hashed without being encoded into a byte array first. Any
+ * other string is hashed as its UTF-8 encoding.
+ *
+ * @author GraviteeSource Team
+ */
+public final class SipHash {
+
+    private final long k0;
+    private final long k1;
+
+    /**
+     * @param key the 128-bit key.
+     */
+    public SipHash(byte[] key) {
+        if (key.length != 16) {
+            throw new IllegalArgumentException("SipHash key must be 16 bytes long");
+        }
+        this.k0 = word(key, null, 0);
+        this.k1 = word(key, null, 8);
+    }
+
+    public long hash64(byte[] input) {
+        return compress(input, null, false).finish64();
+    }
+
+    public long hash64(String input) {
+        return compress(input, false).finish64();
+    }
+
+    /**
+     * @return the 128-bit hash of the input, read as a little-endian integer.
+     */
+    public TokenKey hash128(byte[] input) {
+        return hash128(compress(input, null, true));
+    }
+
+    /**
+     * @return the 128-bit hash of the input, read as a little-endian integer.
+     */
+    public TokenKey hash128(String input) {
+        return hash128(compress(input, true));
+    }
+
+    private static TokenKey hash128(State state) {
+        long low = state.finishFirstHalf();
+        return new TokenKey(state.finishSecondHalf(), low);
+    }
+
+    private State compress(String input, boolean wide) {
+        return isAscii(input) ? compress(null, input, wide) : compress(input.getBytes(StandardCharsets.UTF_8), null, wide);
+    }
+
+    private State compress(byte[] bytes, String ascii, boolean wide) {
+        int length = bytes != null ? bytes.length : ascii.length();
+        State state = new State(k0, k1, wide);
+        int end = length & ~7;
+        for (int i = 0; i < end; i += 8) {
+            state.absorb(word(bytes, ascii, i));
+        }
+
+        long last = ((long) length) << 56;
+        for (int i = end; i < length; i++) {
+            last |= (long) byteAt(bytes, ascii, i) << ((i - end) << 3);
+        }
+        state.absorb(last);
+        return state;
+    }
+
+    private static boolean isAscii(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int byteAt(byte[] bytes, String ascii, int index) {
+        return bytes != null ? bytes[index] & 0xff : ascii.charAt(index);
+    }
+
+    private static long word(byte[] bytes, String ascii, int offset) {
+        long word = 0;
+        for (int i = 7; i >= 0; i--) {
+            word = (word << 8) | byteAt(bytes, ascii, offset + i);
+        }
+        return word;
+    }
+
+    private static final class State {
+
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+
+        State(long k0, long k1, boolean wide) {
+            v0 = k0 ^ 0x736f6d6570736575L;
+            v1 = k1 ^ 0x646f72616e646f6dL ^ (wide ? 0xee : 0);
+            v2 = k0 ^ 0x6c7967656e657261L;
+            v3 = k1 ^ 0x7465646279746573L;
+        }
+
+        void absorb(long m) {
+            v3 ^= m;
+            round();
+            round();
+            v0 ^= m;
+        }
+
+        long finish64() {
+            v2 ^= 0xff;
+            return digest();
+        }
+
+        long finishFirstHalf() {
+            v2 ^= 0xee;
+            return digest();
+        }
+
+        long finishSecondHalf() {
+            v1 ^= 0xdd;
+            return digest();
+        }
+
+        private long digest() {
+            round();
+            round();
+            round();
+            round();
+            return v0 ^ v1 ^ v2 ^ v3;
+        }
+
+        private void round() {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13);
+            v1 ^= v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16);
+            v3 ^= v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21);
+            v3 ^= v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17);
+            v1 ^= v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Computes the keys under which the introspection results are shared with the other nodes, so that access tokens never leave the
+ * process.
+ *
+ * The key is the HMAC-SHA256 of the token with a secret known by the gateway nodes only: the content of the shared cache can
+ * neither be mapped back to the tokens nor be used to check guessed tokens.
+ *
+ * The tokens revoked by their SHA-256 are matched through the keyed hash of the SHA-256, see {@link #sha256Key(byte[])}.
+ *
+ * @author GraviteeSource Team
+ */
+public class TokenHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int SHA_256_LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TokenHasher::sha256);
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> mac;
+
+    public TokenHasher(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String hash(String accessToken) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest(accessToken));
+    }
+
+    /**
+     * @return the raw HMAC-SHA256 of the value, also used to derive keys from the secret.
+     */
+    public byte[] digest(String value) {
+        return mac.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the key of the access token, as {@link #sha256Key(byte[])} of its SHA-256.
+     */
+    public TokenKey sha256Key(String accessToken) {
+        return sha256Key(SHA_256.get().digest(accessToken.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param sha256 the SHA-256 of an access token, as carried by the <code>token_hash</code> revocation events.
+     * @return the first 128 bits of the HMAC-SHA256 of the SHA-256: unlike the SHA-256 itself, it can't be computed from a token
+     * without the secret, so the keys kept to match the revocations can't be used as a lookup table of the tokens.
+     * @throws IllegalArgumentException if the value is not a SHA-256 digest.
+     */
+    public TokenKey sha256Key(byte[] sha256) {
+        if (sha256.length != SHA_256_LENGTH) {
+            throw new IllegalArgumentException("A token hash is a SHA-256 digest");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(mac.get().doFinal(sha256));
+        return new TokenKey(buffer.getLong(), buffer.getLong());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, ex);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import java.security.SecureRandom;
+
+/**
+ * Fixed-width key under which an access token is cached: the 128-bit SipHash-2-4 of the token with a secret drawn at random when the
+ * process starts.
+ *
+ * The key takes 32 bytes of heap whatever the size of the token, and the cached tokens can't be read back from a heap dump.
+ *
+ * @author GraviteeSource Team
+ */
+public record TokenKey(long high, long low) {
+    static final SipHash PROCESS_HASH = new SipHash(randomKey());
+
+    public static TokenKey of(String accessToken) {
+        return PROCESS_HASH.hash128(accessToken);
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[16];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.gravitee.resource.oauth2.am.configuration.UserInfoCacheOptions;
+import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded in-memory cache of the successful userinfo responses, keyed by the {@link TokenKey} of the access token.
+ *
+ * The cache is bounded by the total size of the cached payloads rather than by the number of entries.
+ *
+ * With an {@link OffHeapStore}, the payloads are kept off-heap and only small index entries stay on-heap: the on-heap bound then only
+ * weighs these index entries, while the payloads are bounded by the capacity of the store. An entry is evicted as soon as its payload
+ * is overwritten by newer ones, and each read decodes a new {@link UserInfoResponse}.
+ *
+ * Once {@link #indexClaims(TokenHasher)} is called, the entries can also be invalidated by token hash and subject, when a token or a
+ * user is revoked.
+ *
+ * @author GraviteeSource Team
+ */
+public class UserInfoCache {
+
+    /**
+     * Rough per-entry overhead (key, entry and response or reference objects) added to the payload size.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final Cache<TokenKey, Entry> cache;
+
+    private final OffHeapStore store;
+
+    private volatile Runnable evictionListener;
+
+    private volatile ClaimsIndex index;
+
+    public UserInfoCache(UserInfoCacheOptions options) {
+        this(options, Ticker.systemTicker());
+    }
+
+    UserInfoCache(UserInfoCacheOptions options, Ticker ticker) {
+        this.store = options.getOffHeapCapacity() > 0 ? new OffHeapStore(options.getOffHeapCapacity()) : null;
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumWeight(options.getMaxWeight())
+                .weigher(UserInfoCache::weigh)
+                .expireAfterWrite(Duration.ofSeconds(options.getTimeToLive()))
+                .evictionListener((TokenKey key, Entry entry, RemovalCause cause) -> {
+                    unindex(key, entry);
+                    notifyEviction();
+                })
+                .ticker(ticker)
+                .build();
+        if (store != null) {
+            store.onOverwrite(this::evictOverwritten);
+        }
+    }
+
+    /**
+     * @return the cached userinfo response of the access token, or <code>null</code> if there is none.
+     */
+    public UserInfoResponse get(String accessToken) {
+        TokenKey key = TokenKey.of(accessToken);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.payload() == null) {
+            return entry.response();
+        }
+
+        String payload = store.get(entry.payload());
+        if (payload == null) {
+            // overwritten by newer payloads while being read, the entry is being evicted
+            return null;
+        }
+        return new UserInfoResponse(true, payload);
+    }
+
+    public void put(String accessToken, UserInfoResponse response) {
+        final ClaimsIndex claimsIndex = index;
+        ClaimsIndex.Keys indexKeys = claimsIndex != null
+            ? ClaimsIndex.keys(claimsIndex.tokenHash(accessToken), response.getPayload())
+            : null;
+        TokenKey key = TokenKey.of(accessToken);
+        OffHeapStore.Ref payload = store != null && response.getPayload() != null ? store.put(response.getPayload(), key) : null;
+        Entry entry = payload != null ? new Entry(null, payload, indexKeys) : new Entry(response, null, indexKeys);
+        unindex(key, cache.asMap().put(key, entry));
+        index(key, entry);
+    }
+
+    /**
+     * Indexes the entries put from now on by token hash and subject, so that they can be invalidated by
+     * {@link #invalidateByTokenHash(byte[])} and {@link #invalidateBySubject(String)}.
+     *
+     * @param hasher the hasher of the token hashes, the same as the one of the introspection cache for the token hashes to match.
+     */
+    public void indexClaims(TokenHasher hasher) {
+        if (index == null) {
+            index = new ClaimsIndex(hasher);
+        }
+    }
+
+    /**
+     * @param sha256 the SHA-256 of the access token.
+     * @return <code>true</code> if an entry has been invalidated.
+     * @throws IllegalArgumentException if the value is not a SHA-256 digest.
+     */
+    public boolean invalidateByTokenHash(byte[] sha256) {
+        final ClaimsIndex claimsIndex = index;
+        return claimsIndex != null && invalidateByTokenHash(claimsIndex.tokenHash(sha256));
+    }
+
+    /**
+     * @param tokenHash the token hash of the access token, as given by {@link IntrospectionCache#invalidateByClientId(String,
+     * java.util.function.Consumer)}.
+     * @return <code>true</code> if an entry has been invalidated.
+     */
+    public boolean invalidateByTokenHash(TokenKey tokenHash) {
+        final ClaimsIndex claimsIndex = index;
+        TokenKey key = claimsIndex != null ? claimsIndex.byTokenHash(tokenHash) : null;
+        return key != null && remove(key) != null;
+    }
+
+    /**
+     * @return the number of invalidated entries.
+     */
+    public int invalidateBySubject(String subject) {
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex == null) {
+            return 0;
+        }
+
+        Set<TokenKey> keys = claimsIndex.bySubject(subject);
+        int invalidated = 0;
+        for (TokenKey key : List.copyOf(keys)) {
+            if (remove(key) != null) {
+                invalidated++;
+            }
+        }
+        return invalidated;
+    }
+
+    /**
+     * Registers a listener notified each time an entry is evicted, because of the size bound or of its expiration.
+     */
+    public void onEviction(Runnable listener) {
+        this.evictionListener = listener;
+    }
+
+    /**
+     * Evicts the entry whose payload has been overwritten in the off-heap store, unless it has been replaced since.
+     */
+    private void evictOverwritten(OffHeapStore.Ref ref) {
+        TokenKey key = ref.owner();
+        Entry entry = cache.asMap().get(key);
+        if (entry != null && entry.payload() == ref && cache.asMap().remove(key, entry)) {
+            unindex(key, entry);
+            notifyEviction();
+        }
+    }
+
+    private void notifyEviction() {
+        Runnable listener = evictionListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    public void invalidate(String accessToken) {
+        remove(TokenKey.of(accessToken));
+    }
+
+    private Entry remove(TokenKey key) {
+        Entry entry = cache.asMap().remove(key);
+        unindex(key, entry);
+        return entry;
+    }
+
+    private void index(TokenKey key, Entry entry) {
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex != null && entry.indexKeys() != null) {
+            claimsIndex.add(key, entry.indexKeys());
+        }
+    }
+
+    private void unindex(TokenKey key, Entry entry) {
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex != null && entry != null && entry.indexKeys() != null) {
+            claimsIndex.remove(key, entry.indexKeys());
+        }
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        final ClaimsIndex claimsIndex = index;
+        if (claimsIndex != null) {
+            claimsIndex.clear();
+        }
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    public long weight() {
+        cache.cleanUp();
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private static int weigh(TokenKey key, Entry entry) {
+        if (entry.payload() != null) {
+            // only the index entry is on-heap, the payload is bounded by the capacity of the off-heap store
+            return ENTRY_OVERHEAD;
+        }
+        // String length is used as an approximation of the payload size in bytes
+        return (entry.response().getPayload() != null ? entry.response().getPayload().length() : 0) + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * @param response the cached response, or <code>null</code> if it is stored off-heap.
+     * @param payload the location of the payload of the response stored off-heap.
+     * @param indexKeys the values under which the entry is indexed, <code>null</code> if the claims are not indexed.
+     */
+    private record Entry(UserInfoResponse response, OffHeapStore.Ref payload, ClaimsIndex.Keys indexKeys) {}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.circuitbreaker;
+
+import io.gravitee.resource.oauth2.am.configuration.CircuitBreakerOptions;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * The outcomes of the most recent calls are kept in a sliding window. The circuit opens when the failure rate or the slow
+ * call rate of the window reaches its threshold, and calls are then rejected without being attempted. Once the wait
+ * duration is elapsed, the circuit becomes half-open and lets a limited number of probe calls through: it closes again
+ * if their rates are under the thresholds, or opens again otherwise.
+ *
+ * @author GraviteeSource Team
+ */
+public class CircuitBreaker {
+
+    private final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    /**
+     * Listener notified of the state transitions of the circuit breaker. It is called synchronously and must not block.
+     */
+    @FunctionalInterface
+    public interface StateTransitionListener {
+        void onStateTransition(State from, State to);
+    }
+
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationThreshold;
+    private final int minimumNumberOfCalls;
+    private final long waitDurationInOpenState;
+    private final int permittedNumberOfCallsInHalfOpenState;
+    private final LongSupplier nanoClock;
+
+    private final List<StateTransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final byte[] outcomes;
+    private int position;
+    private int numberOfCalls;
+    private int numberOfFailures;
+    private int numberOfSlowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+
+    public CircuitBreaker(CircuitBreakerOptions options) {
+        this(options, System::nanoTime);
+    }
+
+    CircuitBreaker(CircuitBreakerOptions options, LongSupplier nanoClock) {
+        this.failureRateThreshold = options.getFailureRateThreshold();
+        this.slowCallRateThreshold = options.getSlowCallRateThreshold();
+        this.slowCallDurationThreshold = TimeUnit.MILLISECONDS.toNanos(options.getSlowCallDurationThreshold());
+        this.permittedNumberOfCallsInHalfOpenState = Math.max(1, options.getPermittedNumberOfCallsInHalfOpenState());
+        this.waitDurationInOpenState = TimeUnit.SECONDS.toNanos(options.getWaitDurationInOpenState());
+        this.nanoClock = nanoClock;
+
+        int slidingWindowSize = Math.max(Math.max(1, options.getSlidingWindowSize()), permittedNumberOfCallsInHalfOpenState);
+        this.outcomes = new byte[slidingWindowSize];
+        this.minimumNumberOfCalls = Math.min(Math.max(1, options.getMinimumNumberOfCalls()), slidingWindowSize);
+    }
+
+    public void addListener(StateTransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Acquires the permission to attempt a call. Each permitted call must be followed by a call to {@link #onResult(long, boolean)}.
+     *
+     * @return <code>false</code> if the circuit is open and the call must be rejected.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < waitDurationInOpenState) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                halfOpenPermits = 1;
+                return true;
+            default:
+                if (halfOpenPermits < permittedNumberOfCallsInHalfOpenState) {
+                    halfOpenPermits++;
+                    return true;
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param duration the duration of the call, in nanoseconds.
+     * @param failed whether the call failed.
+     */
+    public synchronized void onResult(long duration, boolean failed) {
+        if (state == State.OPEN) {
+            // Late outcome of a call started before the circuit opened
+            return;
+        }
+
+        byte outcome = (byte) ((failed ? FAILURE : 0) | (duration >= slowCallDurationThreshold ? SLOW : 0));
+        record(outcome);
+
+        if (state == State.HALF_OPEN) {
+            if (numberOfCalls >= permittedNumberOfCallsInHalfOpenState) {
+                transitionTo(thresholdsReached() ? State.OPEN : State.CLOSED);
+            }
+        } else if (numberOfCalls >= minimumNumberOfCalls && thresholdsReached()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(byte outcome) {
+        if (numberOfCalls == outcomes.length) {
+            byte evicted = outcomes[position];
+            numberOfFailures -= evicted & FAILURE;
+            numberOfSlowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            numberOfCalls++;
+        }
+
+        outcomes[position] = outcome;
+        numberOfFailures += outcome & FAILURE;
+        numberOfSlowCalls += (outcome & SLOW) >> 1;
+        position = (position + 1) % outcomes.length;
+    }
+
+    private boolean thresholdsReached() {
+        return (
+            numberOfFailures * 100 >= failureRateThreshold * numberOfCalls ||
+            numberOfSlowCalls * 100 >= slowCallRateThreshold * numberOfCalls
+        );
+    }
+
+    private void transitionTo(State newState) {
+        State previousState = state;
+        state = newState;
+
+        position = 0;
+        numberOfCalls = 0;
+        numberOfFailures = 0;
+        numberOfSlowCalls = 0;
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+
+        for (StateTransitionListener listener : listeners) {
+            try {
+                listener.onStateTransition(previousState, newState);
+            } catch (Exception ex) {
+                logger.error("An error occurs while notifying a circuit breaker state transition", ex);
+            }
+        }
+    }
+}
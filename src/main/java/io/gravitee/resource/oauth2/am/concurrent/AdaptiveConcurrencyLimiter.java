@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.concurrent;
+
+import io.gravitee.resource.oauth2.am.configuration.ConcurrencyLimitOptions;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of calls in progress, adjusting the limit to the observed latency with a gradient algorithm.
+ *
+ * A long-term average of the latency is compared to the latency of each call. While the call is not slower than the average
+ * by more than the tolerance, the limit grows by its square root so that a few calls may queue on the server. Once the calls
+ * get slower, the limit shrinks in proportion, down to half of it per sample. Failed calls (errors and timeouts) back off the
+ * limit. The limit only grows while it is actually used, so that an idle period doesn't let an unbounded burst through.
+ *
+ * @author GraviteeSource Team
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Number of samples the long-term latency is averaged on.
+     */
+    private static final int LONG_WINDOW = 600;
+
+    /**
+     * Number of samples averaged before the long-term latency becomes an exponential moving average.
+     */
+    private static final int WARMUP_WINDOW = 10;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private double longRtt;
+    private int samples;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitOptions options) {
+        this.minLimit = Math.max(1, options.getMinLimit());
+        this.maxLimit = Math.max(minLimit, options.getMaxLimit());
+        this.rttTolerance = Math.max(1.0, options.getRttTolerance());
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, options.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Acquires a slot for a call. Each acquired slot must be released by {@link #onResult(long, boolean)} or {@link #release()}.
+     *
+     * @return <code>false</code> if the limit is reached and the call must be rejected.
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a call which has not been attempted, without sampling its latency.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases the slot of a completed call and adjusts the limit.
+     *
+     * @param rtt the duration of the call, in nanoseconds.
+     * @param dropped whether the call failed or timed out.
+     */
+    public void onResult(long rtt, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        update(rtt, current, dropped);
+    }
+
+    private synchronized void update(long rtt, int inFlight, boolean dropped) {
+        if (dropped) {
+            setLimit(estimatedLimit * BACKOFF_RATIO);
+            return;
+        }
+        if (rtt <= 0) {
+            return;
+        }
+
+        if (samples < WARMUP_WINDOW) {
+            samples++;
+            longRtt += (rtt - longRtt) / samples;
+        } else {
+            longRtt += (rtt - longRtt) * 2 / (LONG_WINDOW + 1);
+        }
+
+        if (longRtt > 2 * rtt) {
+            // the latency dropped for good, let the average catch up faster
+            longRtt *= 0.95;
+        }
+
+        if (inFlight < estimatedLimit / 2) {
+            // the limit isn't used, it can't be told whether a larger one would be sustained
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setLimit(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private void setLimit(double newLimit) {
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Signal telling that the result of a call is not needed anymore, so that the work in progress can be aborted.
+ *
+ * The listeners are notified once, on the thread cancelling. A listener registered after the cancellation is notified at once.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Cancellation {
+
+    private final Logger logger = LoggerFactory.getLogger(Cancellation.class);
+
+    private static final Registration NO_REGISTRATION = () -> {};
+
+    private List<Runnable> listeners;
+    private volatile boolean cancelled;
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        List<Runnable> notified;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            notified = listeners;
+            listeners = null;
+        }
+
+        if (notified != null) {
+            for (Runnable listener : notified) {
+                try {
+                    listener.run();
+                } catch (Exception ex) {
+                    logger.error("An error occurs while notifying a cancellation", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the registration of the listener, to remove once the call completed.
+     */
+    public Registration onCancel(Runnable listener) {
+        synchronized (this) {
+            if (!cancelled) {
+                if (listeners == null) {
+                    listeners = new ArrayList<>(2);
+                }
+                listeners.add(listener);
+                return () -> remove(listener);
+            }
+        }
+        listener.run();
+        return NO_REGISTRATION;
+    }
+
+    private synchronized void remove(Runnable listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Registration {
+        void unregister();
+    }
+}
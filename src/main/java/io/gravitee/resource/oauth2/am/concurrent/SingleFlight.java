@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.concurrent;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces concurrent calls sharing the same key: the first caller runs the call, the others wait for its result.
+ *
+ * Each waiting handler is called back on the Vert.x context it was registered from. A cancelled caller stops waiting and is not
+ * notified, and the call itself is cancelled once all its callers are.
+ *
+ * @author GraviteeSource Team
+ */
+public class SingleFlight<K, R> {
+
+    private final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final ConcurrentMap<K, Flight<R>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the call for the given key, unless a call is already in flight for this key, in which case the handler is
+     * notified with the result of the pending call.
+     *
+     * @param key the key identifying the call.
+     * @param handler the handler to notify with the result.
+     * @param call the call to run, it must complete the handler it is given exactly once.
+     */
+    public void execute(K key, Handler<R> handler, Consumer<Handler<R>> call) {
+        execute(key, null, handler, (cancellation, callHandler) -> call.accept(callHandler));
+    }
+
+    /**
+     * Same as {@link #execute(Object, Handler, Consumer)}, for a caller which may cancel.
+     *
+     * @param cancellation the cancellation of the caller, or <code>null</code> if it can't cancel.
+     * @param call the call to run, with the cancellation of the call, cancelled once all its callers are.
+     */
+    public void execute(K key, Cancellation cancellation, Handler<R> handler, BiConsumer<Cancellation, Handler<R>> call) {
+        if (cancellation != null && cancellation.isCancelled()) {
+            return;
+        }
+
+        Waiter<R> waiter = new Waiter<>(Vertx.currentContext(), handler);
+        Flight<R> flight = inFlight.computeIfAbsent(key, k -> new Flight<>());
+
+        boolean leader;
+        synchronized (flight) {
+            // the flight may have been completed and removed between computeIfAbsent and this lock
+            if (inFlight.get(key) != flight) {
+                execute(key, cancellation, handler, call);
+                return;
+            }
+            leader = flight.waiters.isEmpty();
+            flight.waiters.add(waiter);
+        }
+
+        if (cancellation != null) {
+            waiter.registration = cancellation.onCancel(() -> cancel(key, flight, waiter));
+            if (waiter.notified) {
+                // notified while registering
+                waiter.registration.unregister();
+            }
+        }
+
+        if (leader) {
+            call.accept(flight.cancellation, result -> complete(key, flight, result));
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private void cancel(K key, Flight<R> flight, Waiter<R> waiter) {
+        synchronized (flight) {
+            if (flight.completed || !flight.waiters.remove(waiter) || !flight.waiters.isEmpty()) {
+                return;
+            }
+            // a new caller runs a new call rather than waiting for a cancelled one
+            inFlight.remove(key, flight);
+        }
+        flight.cancellation.cancel();
+    }
+
+    private void complete(K key, Flight<R> flight, R result) {
+        synchronized (flight) {
+            inFlight.remove(key, flight);
+            // no waiter can be added or removed anymore
+            flight.completed = true;
+        }
+
+        for (Waiter<R> waiter : flight.waiters) {
+            try {
+                waiter.handle(result);
+            } catch (Exception ex) {
+                logger.error("An error occurs while notifying a pending call", ex);
+            }
+        }
+    }
+
+    private static final class Flight<R> {
+
+        private final List<Waiter<R>> waiters = new ArrayList<>();
+        private final Cancellation cancellation = new Cancellation();
+        private boolean completed;
+    }
+
+    private static final class Waiter<R> {
+
+        private final Context context;
+        private final Handler<R> handler;
+        private volatile Cancellation.Registration registration;
+        private volatile boolean notified;
+
+        private Waiter(Context context, Handler<R> handler) {
+            this.context = context;
+            this.handler = handler;
+        }
+
+        void handle(R result) {
+            notified = true;
+            Cancellation.Registration current = registration;
+            if (current != null) {
+                current.unregister();
+            }
+            if (context == null || context == Vertx.currentContext()) {
+                handler.handle(result);
+            } else {
+                context.runOnContext(v -> handler.handle(result));
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the snapshot of the introspection cache, saved to a local file when the resource stops and restored when it starts.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class CacheSnapshotOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Directory of the snapshot files. Defaults to a <code>gravitee-resource-oauth2-am</code> directory in the temporary directory.
+     */
+    private String directory;
+
+    /**
+     * Maximum time (in milliseconds) spent restoring a snapshot, the remaining entries are skipped past this delay.
+     * Nothing is restored if the snapshot file itself can't be read and decrypted within it.
+     */
+    private long maxLoadTime = 500;
+}
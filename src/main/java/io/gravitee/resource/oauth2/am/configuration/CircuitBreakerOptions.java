@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the circuit breaker protecting the calls to the introspection and userinfo endpoints.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class CircuitBreakerOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Percentage of failed calls (errors and 5xx responses) above which the circuit opens.
+     */
+    private int failureRateThreshold = 50;
+
+    /**
+     * Percentage of slow calls above which the circuit opens.
+     */
+    private int slowCallRateThreshold = 100;
+
+    /**
+     * Duration (in milliseconds) above which a call is considered as slow.
+     */
+    private long slowCallDurationThreshold = 5000;
+
+    /**
+     * Number of the most recent calls the failure and slow call rates are computed on.
+     */
+    private int slidingWindowSize = 100;
+
+    /**
+     * Minimum number of calls in the sliding window before the rates are evaluated.
+     */
+    private int minimumNumberOfCalls = 20;
+
+    /**
+     * Time (in seconds) the circuit stays open before letting probe calls through.
+     */
+    private long waitDurationInOpenState = 30;
+
+    /**
+     * Number of probe calls let through while the circuit is half-open.
+     */
+    private int permittedNumberOfCallsInHalfOpenState = 5;
+}
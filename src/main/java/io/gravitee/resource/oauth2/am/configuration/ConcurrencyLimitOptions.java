@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the adaptive limit of the calls to the introspection and userinfo endpoints in progress.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class ConcurrencyLimitOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Number of calls allowed in progress before any latency has been observed.
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /**
+     * Ratio of the latency to the long-term latency tolerated before the limit decreases, <code>1.5</code> means 50% slower.
+     */
+    private double rttTolerance = 1.5;
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the active health checks of the AM endpoints, run against the OpenID Connect discovery endpoint of the security domain.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class HealthCheckOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Delay (in seconds) between two checks of an endpoint.
+     */
+    private long interval = 10;
+
+    /**
+     * Timeout (in milliseconds) of a check.
+     */
+    private long timeout = 2000;
+
+    /**
+     * Number of consecutive failed checks after which an endpoint is ejected.
+     */
+    private int unhealthyThreshold = 3;
+
+    /**
+     * Number of consecutive successful checks after which an ejected endpoint is used again.
+     */
+    private int healthyThreshold = 2;
+}
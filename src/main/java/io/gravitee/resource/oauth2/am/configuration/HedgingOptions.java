@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the hedged introspection requests: a second request is sent when the first one is slow to answer.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class HedgingOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Delay (in milliseconds) after which a second request is sent, <code>0</code> to wait for the observed {@link #percentile} of
+     * the latency.
+     */
+    private long delay = 0;
+
+    /**
+     * Percentile of the observed latency waited before sending a second request, when no fixed delay is set.
+     */
+    private int percentile = 95;
+
+    /**
+     * Maximum percentage of the introspection requests which may be hedged.
+     */
+    private int budget = 10;
+}
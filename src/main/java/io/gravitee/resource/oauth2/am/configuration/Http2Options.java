@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Pooling of the HTTP/2 connections to AM, when <code>http.version</code> is <code>HTTP_2</code>.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class Http2Options {
+
+    /**
+     * Maximum number of HTTP/2 connections to each AM endpoint, each carrying up to <code>http.http2MultiplexingLimit</code>
+     * concurrent requests. <code>0</code> uses <code>http.maxConcurrentConnections</code>, as for the HTTP/1.1 connections.
+     */
+    private int maxConnections = 0;
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the in-memory cache holding the active introspection results.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class IntrospectionCacheOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of introspection results kept in memory.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Maximum time (in seconds) an introspection result is kept. The entry never outlives the <code>exp</code> claim of the token.
+     */
+    private long maxTimeToLive = 300;
+
+    /**
+     * Grace period (in seconds) during which an introspection result is still served once it is no longer fresh, if AM can't
+     * be reached, times out, fails with a 5xx status or is protected by the circuit breaker. The entry never outlives the
+     * <code>exp</code> claim of the token. <code>0</code> disables it.
+     */
+    private long staleIfError = 0;
+
+    /**
+     * Percentage of the time to live after which a frequently accessed introspection result is re-validated in the background.
+     * <code>0</code> disables it.
+     */
+    private int refreshAheadThreshold = 0;
+
+    /**
+     * Number of reads from which an introspection result is considered as frequently accessed.
+     */
+    private int refreshAheadMinHits = 10;
+
+    /**
+     * Size (in bytes) of the off-heap memory holding the introspection results, only small index entries are then kept on-heap. The oldest
+     * entries are evicted once it is full. <code>0</code> keeps the introspection results on-heap.
+     */
+    private int offHeapCapacity = 0;
+}
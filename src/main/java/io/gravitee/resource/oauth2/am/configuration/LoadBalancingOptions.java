@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the load balancing of the calls across the AM endpoints.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class LoadBalancingOptions {
+
+    private Strategy strategy = Strategy.LEAST_OUTSTANDING_REQUESTS;
+
+    /**
+     * Zone of the gateway: the endpoints of this zone are preferred, the others are only used when none of them is healthy.
+     */
+    private String zone;
+
+    public enum Strategy {
+        /**
+         * Prefers the endpoint with the fewest calls in progress.
+         */
+        LEAST_OUTSTANDING_REQUESTS,
+
+        /**
+         * Prefers the endpoint with the lowest exponentially weighted moving average latency, weighted by its calls in progress.
+         */
+        EWMA_LATENCY,
+    }
+}
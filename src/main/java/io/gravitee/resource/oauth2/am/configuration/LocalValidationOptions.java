@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the local validation of JWT access tokens against the JWKS of the security domain.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class LocalValidationOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Expected <code>iss</code> claim. Defaults to the OpenID Connect base URL of the security domain.
+     */
+    private String issuer;
+
+    /**
+     * Expected <code>typ</code> header of the access tokens. Tokens of another type are introspected. Any type is accepted when empty.
+     * AM issues both its access tokens and its ID tokens with the <code>JWT</code> type, only the {@link #audience} then tells them
+     * apart. <code>at+jwt</code> (RFC 9068) is only issued by an AM configured to.
+     */
+    private String tokenType;
+
+    /**
+     * Expected <code>aud</code> claim. Tokens issued to another audience are introspected. Any audience is accepted when empty.
+     */
+    private String audience;
+
+    /**
+     * Tolerated clock skew (in seconds) when checking the <code>exp</code> and <code>nbf</code> claims.
+     */
+    private long clockSkew = 0;
+
+    /**
+     * Minimum delay (in seconds) between two JWKS fetches, including the ones triggered by an unknown <code>kid</code>.
+     */
+    private long jwksMinRefreshInterval = 30;
+
+    /**
+     * Delay (in seconds) after which the JWKS is fetched again.
+     */
+    private long jwksMaxAge = 600;
+}
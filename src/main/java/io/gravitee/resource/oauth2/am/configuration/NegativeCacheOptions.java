@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the in-memory cache holding the inactive introspection results (AM V2_X and upper).
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class NegativeCacheOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of inactive introspection results kept in memory.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Time (in seconds) an inactive introspection result is kept.
+     */
+    private long timeToLive = 30;
+}
@@ -22,6 +22,8 @@ import io.gravitee.plugin.configurations.http.HttpProxyOptions;
 import io.gravitee.plugin.configurations.ssl.SslOptions;
 import io.gravitee.resource.api.ResourceConfiguration;
 import io.gravitee.secrets.api.annotation.Secret;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Setter;
@@ -51,9 +53,23 @@ public class OAuth2ResourceConfiguration implements ResourceConfiguration {
     @Setter(AccessLevel.NONE)
     private boolean useSystemProxy;
 
+    private List<EndpointOptions> endpoints = new ArrayList<>();
+
+    @JsonProperty("loadBalancing")
+    private LoadBalancingOptions loadBalancingOptions = new LoadBalancingOptions();
+
+    @JsonProperty("healthCheck")
+    private HealthCheckOptions healthCheckOptions = new HealthCheckOptions();
+
+    @JsonProperty("warmUp")
+    private WarmUpOptions warmUpOptions = new WarmUpOptions();
+
     @JsonProperty("http")
     private HttpClientOptions httpClientOptions = new HttpClientOptions();
 
+    @JsonProperty("http2")
+    private Http2Options http2Options = new Http2Options();
+
     @JsonProperty("proxy")
     private HttpProxyOptions httpProxyOptions = new HttpProxyOptions();
 
@@ -61,6 +77,42 @@ public class OAuth2ResourceConfiguration implements ResourceConfiguration {
     @Setter(AccessLevel.NONE)
     private SslOptions sslOptions;
 
+    @JsonProperty("introspectionTimeouts")
+    private TimeoutOptions introspectionTimeoutOptions = new TimeoutOptions();
+
+    @JsonProperty("userInfoTimeouts")
+    private TimeoutOptions userInfoTimeoutOptions = new TimeoutOptions();
+
+    @JsonProperty("cache")
+    private IntrospectionCacheOptions introspectionCacheOptions = new IntrospectionCacheOptions();
+
+    @JsonProperty("cacheSnapshot")
+    private CacheSnapshotOptions cacheSnapshotOptions = new CacheSnapshotOptions();
+
+    @JsonProperty("negativeCache")
+    private NegativeCacheOptions negativeCacheOptions = new NegativeCacheOptions();
+
+    @JsonProperty("sharedCache")
+    private SharedCacheOptions sharedCacheOptions = new SharedCacheOptions();
+
+    @JsonProperty("revocation")
+    private RevocationOptions revocationOptions = new RevocationOptions();
+
+    @JsonProperty("localValidation")
+    private LocalValidationOptions localValidationOptions = new LocalValidationOptions();
+
+    @JsonProperty("userInfoCache")
+    private UserInfoCacheOptions userInfoCacheOptions = new UserInfoCacheOptions();
+
+    @JsonProperty("circuitBreaker")
+    private CircuitBreakerOptions circuitBreakerOptions = new CircuitBreakerOptions();
+
+    @JsonProperty("concurrencyLimit")
+    private ConcurrencyLimitOptions concurrencyLimitOptions = new ConcurrencyLimitOptions();
+
+    @JsonProperty("hedging")
+    private HedgingOptions hedgingOptions = new HedgingOptions();
+
     public void setSslOptions(SslOptions sslOptions) {
         // smooth migration: older versions of the plugin didn't have the sslOptions property,
         // but when the target was a secured schema (https), we enforced hostnameVerifier to false and trustAll to true.
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the consumer of revocation events, evicting the revoked tokens from the introspection and userinfo caches.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class RevocationOptions {
+
+    private boolean enabled = false;
+
+    private Type type = Type.POLLING;
+
+    /**
+     * URL of the revocation feed, polled with the client credentials of the resource. Only used with the {@link Type#POLLING} type.
+     */
+    private String url;
+
+    /**
+     * Delay (in milliseconds) between two polls of the revocation feed.
+     */
+    private long pollInterval = 10_000;
+
+    /**
+     * Name under which the pushed events are received. Only used with the {@link Type#WEBHOOK} type.
+     */
+    private String name = "gravitee-resource-oauth2-am-revocation";
+
+    public enum Type {
+        POLLING,
+        WEBHOOK,
+    }
+}
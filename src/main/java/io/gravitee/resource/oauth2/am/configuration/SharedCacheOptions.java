@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the second-level cache sharing the active introspection results between the gateway nodes.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class SharedCacheOptions {
+
+    private boolean enabled = false;
+
+    private Type type = Type.CLUSTER;
+
+    /**
+     * Name of the cache. The resources using the same name, security domain and client share their introspection results.
+     */
+    private String name = "gravitee-resource-oauth2-am-introspection";
+
+    /**
+     * Maximum number of introspection results kept in the cache.
+     */
+    private long maxSize = 100_000;
+
+    /**
+     * Maximum time (in seconds) an introspection result is shared. The entry never outlives the <code>exp</code> claim of the token.
+     */
+    private long maxTimeToLive = 300;
+
+    /**
+     * Maximum time (in milliseconds) to wait for the cache before calling AM, as if the result was not shared. <code>0</code>
+     * waits for the cache whatever the time it takes.
+     */
+    private long lookupTimeout = 100;
+
+    public enum Type {
+        /**
+         * Distributed cache of the gateway, shared by all the nodes of the cluster.
+         */
+        CLUSTER,
+
+        /**
+         * Cache held in the memory of the node, shared by its resources only.
+         */
+        MEMORY,
+    }
+}
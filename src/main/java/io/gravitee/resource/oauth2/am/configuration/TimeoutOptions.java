@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Timeouts of the calls to an AM endpoint, in milliseconds. A value of <code>0</code> falls back to the HTTP client settings.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class TimeoutOptions {
+
+    /**
+     * Maximum time to obtain a connection, including the time spent waiting for a free connection in the pool.
+     */
+    private long connectTimeout = 0;
+
+    /**
+     * Maximum time without receiving any data once the request is sent.
+     */
+    private long idleTimeout = 0;
+
+    /**
+     * Maximum time for the whole call, from the connection to the end of the response.
+     */
+    private long timeout = 30_000;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the in-memory cache holding the userinfo responses.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class UserInfoCacheOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Maximum total size (in bytes) of the userinfo payloads kept in memory. With an off-heap capacity, only the small on-heap index
+     * entries are counted.
+     */
+    private long maxWeight = 10 * 1024 * 1024;
+
+    /**
+     * Time (in seconds) a userinfo response is kept.
+     */
+    private long timeToLive = 60;
+
+    /**
+     * Size (in bytes) of the off-heap memory holding the userinfo payloads, only small index entries are then kept on-heap and counted in
+     * {@link #maxWeight}. The oldest entries are evicted once it is full. <code>0</code> keeps the userinfo payloads on-heap.
+     */
+    private int offHeapCapacity = 0;
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.configuration;
+
+import lombok.Data;
+
+/**
+ * Settings of the warm-up of the connections to AM when the resource starts.
+ *
+ * @author GraviteeSource Team
+ */
+@Data
+public class WarmUpOptions {
+
+    private boolean enabled = false;
+
+    /**
+     * Number of connections opened to each AM endpoint.
+     */
+    private int connections = 4;
+
+    /**
+     * Timeout (in milliseconds) of each warm-up request.
+     */
+    private long timeout = 2000;
+
+    /**
+     * Maximum time (in milliseconds) the start of the resource waits for the warm-up, which goes on in the background past
+     * this delay.
+     */
+    private long maxWaitTime = 1000;
+}
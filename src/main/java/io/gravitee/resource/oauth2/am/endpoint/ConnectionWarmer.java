@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.endpoint;
+
+import io.gravitee.common.http.HttpStatusCode;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opens the pooled connections to the AM endpoints before the first calls, so that they don't pay for the DNS resolution and
+ * the TCP and TLS handshakes.
+ *
+ * A connection of the pool is only established by a request, so each connection is opened by a lightweight request. A first
+ * request resolves the host and completes a full TLS handshake, then the other connections are opened concurrently and resume
+ * the TLS session cached by the client.
+ *
+ * @author GraviteeSource Team
+ */
+public class ConnectionWarmer {
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionWarmer.class);
+
+    private final EndpointGroup endpointGroup;
+    private final String path;
+    private final String userAgent;
+    private final int connections;
+    private final long timeout;
+
+    /**
+     * @param path the path requested to open a connection, relative to the AM server path.
+     * @param connections the number of connections opened to each endpoint.
+     * @param timeout the timeout of each request, in milliseconds.
+     */
+    public ConnectionWarmer(EndpointGroup endpointGroup, String path, String userAgent, int connections, long timeout) {
+        this.endpointGroup = endpointGroup;
+        this.path = path;
+        this.userAgent = userAgent;
+        this.connections = Math.max(1, connections);
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the number of connections successfully opened, once all the requests completed.
+     */
+    public Future<Integer> warmUp() {
+        List<Future<Integer>> warmedUp = new ArrayList<>();
+        for (Endpoint endpoint : endpointGroup.getEndpoints()) {
+            warmedUp.add(warmUp(endpoint));
+        }
+        return Future.join(warmedUp).map(ignore -> warmedUp.stream().mapToInt(Future::result).sum());
+    }
+
+    private Future<Integer> warmUp(Endpoint endpoint) {
+        return open(endpoint)
+            .compose(first -> {
+                List<Future<Boolean>> others = new ArrayList<>(connections - 1);
+                for (int i = 1; i < connections; i++) {
+                    others.add(open(endpoint));
+                }
+                return Future
+                    .join(others)
+                    .map(ignore -> (first ? 1 : 0) + (int) others.stream().filter(Future::result).count());
+            });
+    }
+
+    /**
+     * @return whether the request succeeded, the future never fails.
+     */
+    private Future<Boolean> open(Endpoint endpoint) {
+        final RequestOptions reqOptions = new RequestOptions().setMethod(HttpMethod.GET).setURI(endpoint.uri(path)).setTimeout(timeout);
+        if (userAgent != null) {
+            reqOptions.putHeader(HttpHeaderNames.USER_AGENT, userAgent);
+        }
+
+        return endpoint
+            .getHttpClient()
+            .request(reqOptions)
+            .compose(HttpClientRequest::send)
+            .compose(response -> response.body().map(body -> response))
+            .map(HttpClientResponse::statusCode)
+            .map(statusCode -> {
+                if (statusCode != HttpStatusCode.OK_200) {
+                    logger.debug("Warm-up request to AM endpoint {} returns a {} status code", endpoint, statusCode);
+                }
+                // the connection is open, whatever the status code
+                return true;
+            })
+            .otherwise(throwable -> {
+                logger.debug("Unable to warm up a connection to AM endpoint {}: {}", endpoint, throwable.getMessage());
+                return false;
+            });
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.endpoint;
+
+import io.vertx.core.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * An AM endpoint, with the HTTP client targeting it and the load statistics used to balance the calls.
+ *
+ * The latency is tracked as a peak EWMA: a slower call is taken into account immediately, while faster calls lower the average
+ * progressively, with a weight depending on the time elapsed since the previous call.
+ *
+ * @author GraviteeSource Team
+ */
+public class Endpoint {
+
+    private static final double DECAY_TIME = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Latency accounted for a failed call, so that an endpoint failing fast does not attract the traffic.
+     */
+    private static final long FAILURE_PENALTY = TimeUnit.SECONDS.toNanos(1);
+
+    private final String url;
+    private final String zone;
+    private final HttpClient httpClient;
+    private final String basePath;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+
+    private double latency;
+    private long lastUpdate;
+
+    private volatile boolean healthy = true;
+    private int consecutiveSuccesses;
+    private int consecutiveFailures;
+
+    /**
+     * @param basePath the path of the AM server, ending with a <code>/</code>.
+     */
+    public Endpoint(String url, String zone, HttpClient httpClient, String basePath) {
+        this(url, zone, httpClient, basePath, System::nanoTime);
+    }
+
+    Endpoint(String url, String zone, HttpClient httpClient, String basePath, LongSupplier nanoClock) {
+        this.url = url;
+        this.zone = zone;
+        this.httpClient = httpClient;
+        this.basePath = basePath;
+        this.nanoClock = nanoClock;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return the request URI of the given path, relative to the AM server path.
+     */
+    public String uri(String path) {
+        return basePath + path;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * @return the average latency of the calls, in nanoseconds.
+     */
+    public synchronized double getLatency() {
+        return latency;
+    }
+
+    /**
+     * To be called when a call to this endpoint starts.
+     */
+    public void onRequest() {
+        outstandingRequests.incrementAndGet();
+    }
+
+    /**
+     * To be called once when a call to this endpoint completes, whatever its outcome.
+     */
+    public void onResponse() {
+        outstandingRequests.decrementAndGet();
+    }
+
+    /**
+     * Records the outcome of a call to this endpoint.
+     *
+     * @param duration the duration of the call, in nanoseconds.
+     * @param failed whether the call failed because of the endpoint (error or 5xx response).
+     */
+    public void onResult(long duration, boolean failed) {
+        updateLatency(failed ? Math.max(duration, FAILURE_PENALTY) : duration);
+    }
+
+    private synchronized void updateLatency(long sample) {
+        long now = nanoClock.getAsLong();
+        if (lastUpdate == 0 || sample > latency) {
+            latency = sample;
+        } else {
+            double weight = Math.exp(-(now - lastUpdate) / DECAY_TIME);
+            latency = latency * weight + sample * (1 - weight);
+        }
+        lastUpdate = now;
+    }
+
+    /**
+     * Records the result of a health check.
+     *
+     * @return <code>true</code> if the endpoint health changed.
+     */
+    public synchronized boolean onHealthCheck(boolean success, int healthyThreshold, int unhealthyThreshold) {
+        if (success) {
+            consecutiveFailures = 0;
+            consecutiveSuccesses++;
+            if (!healthy && consecutiveSuccesses >= healthyThreshold) {
+                healthy = true;
+                return true;
+            }
+        } else {
+            consecutiveSuccesses = 0;
+            consecutiveFailures++;
+            if (healthy && consecutiveFailures >= unhealthyThreshold) {
+                healthy = false;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return zone != null ? url + " (" + zone + ")" : url;
+    }
+}
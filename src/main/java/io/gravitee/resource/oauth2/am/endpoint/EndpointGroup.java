@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.endpoint;
+
+import io.gravitee.resource.oauth2.am.configuration.LoadBalancingOptions;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balances the calls across the AM endpoints.
+ *
+ * The healthy endpoints of the local zone are preferred, then the healthy endpoints of the other zones. If no endpoint is healthy,
+ * all of them are candidates, rather than failing without trying. Among the candidates, two are picked at random and the least loaded
+ * one is selected (power of two choices), which avoids sending every call to the same endpoint between two statistics updates.
+ *
+ * @author GraviteeSource Team
+ */
+public class EndpointGroup {
+
+    private final List<Endpoint> endpoints;
+    private final Endpoint[] localEndpoints;
+    private final Endpoint[] remoteEndpoints;
+    private final LoadBalancingOptions.Strategy strategy;
+
+    public EndpointGroup(List<Endpoint> endpoints, LoadBalancingOptions options) {
+        this.endpoints = List.copyOf(endpoints);
+        this.strategy = options != null && options.getStrategy() != null
+            ? options.getStrategy()
+            : LoadBalancingOptions.Strategy.LEAST_OUTSTANDING_REQUESTS;
+
+        String zone = options != null ? options.getZone() : null;
+        if (zone == null || zone.isBlank()) {
+            this.localEndpoints = endpoints.toArray(new Endpoint[0]);
+            this.remoteEndpoints = new Endpoint[0];
+        } else {
+            this.localEndpoints = endpoints.stream().filter(endpoint -> zone.equals(endpoint.getZone())).toArray(Endpoint[]::new);
+            this.remoteEndpoints = endpoints.stream().filter(endpoint -> !zone.equals(endpoint.getZone())).toArray(Endpoint[]::new);
+        }
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return the endpoint to send the next call to.
+     */
+    public Endpoint select() {
+        Endpoint endpoint = select(localEndpoints, true);
+        if (endpoint == null) {
+            endpoint = select(remoteEndpoints, true);
+        }
+        if (endpoint == null) {
+            endpoint = select(localEndpoints, false);
+        }
+        if (endpoint == null) {
+            endpoint = select(remoteEndpoints, false);
+        }
+        return endpoint;
+    }
+
+    /**
+     * @return the endpoint to send the next call to, another one than the given endpoint if one is healthy.
+     */
+    public Endpoint select(Endpoint avoided) {
+        Endpoint endpoint = select();
+        if (endpoint != avoided || endpoints.size() == 1) {
+            return endpoint;
+        }
+
+        Endpoint best = null;
+        for (Endpoint candidate : endpoints) {
+            if (candidate != avoided && candidate.isHealthy() && (best == null || cost(candidate) < cost(best))) {
+                best = candidate;
+            }
+        }
+        return best != null ? best : endpoint;
+    }
+
+    private Endpoint select(Endpoint[] candidates, boolean healthyOnly) {
+        int size = candidates.length;
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return !healthyOnly || candidates[0].isHealthy() ? candidates[0] : null;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        Endpoint a = candidates[first];
+        Endpoint b = candidates[second];
+        if (!healthyOnly || (a.isHealthy() && b.isHealthy())) {
+            return cost(a) <= cost(b) ? a : b;
+        }
+
+        // Some candidates are ejected, fallback to the least loaded healthy one
+        Endpoint best = null;
+        for (Endpoint candidate : candidates) {
+            if (candidate.isHealthy() && (best == null || cost(candidate) < cost(best))) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private double cost(Endpoint endpoint) {
+        if (strategy == LoadBalancingOptions.Strategy.EWMA_LATENCY) {
+            return endpoint.getLatency() * (endpoint.getOutstandingRequests() + 1);
+        }
+        return endpoint.getOutstandingRequests();
+    }
+}
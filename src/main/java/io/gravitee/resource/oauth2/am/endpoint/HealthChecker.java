@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.endpoint;
+
+import io.gravitee.common.http.HttpStatusCode;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.resource.oauth2.am.configuration.HealthCheckOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically checks the AM endpoints, and ejects the ones which do not answer successfully anymore.
+ *
+ * @author GraviteeSource Team
+ */
+public class HealthChecker {
+
+    private final Logger logger = LoggerFactory.getLogger(HealthChecker.class);
+
+    private final Vertx vertx;
+    private final EndpointGroup endpointGroup;
+    private final String path;
+    private final String userAgent;
+    private final HealthCheckOptions options;
+
+    private long timerId = -1;
+
+    /**
+     * @param path the path to check, relative to the AM server path.
+     */
+    public HealthChecker(Vertx vertx, EndpointGroup endpointGroup, String path, String userAgent, HealthCheckOptions options) {
+        this.vertx = vertx;
+        this.endpointGroup = endpointGroup;
+        this.path = path;
+        this.userAgent = userAgent;
+        this.options = options;
+    }
+
+    public void start() {
+        timerId = vertx.setPeriodic(TimeUnit.SECONDS.toMillis(options.getInterval()), id -> checkAll());
+    }
+
+    public void stop() {
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+    }
+
+    void checkAll() {
+        for (Endpoint endpoint : endpointGroup.getEndpoints()) {
+            check(endpoint);
+        }
+    }
+
+    private void check(Endpoint endpoint) {
+        final RequestOptions reqOptions = new RequestOptions()
+            .setMethod(HttpMethod.GET)
+            .setURI(endpoint.uri(path))
+            .putHeader(HttpHeaderNames.USER_AGENT, userAgent)
+            .setTimeout(options.getTimeout());
+
+        endpoint
+            .getHttpClient()
+            .request(reqOptions)
+            .compose(HttpClientRequest::send)
+            .compose(response -> response.body().map(body -> response))
+            .map(HttpClientResponse::statusCode)
+            .onComplete(ar -> {
+                boolean success = ar.succeeded() && ar.result() == HttpStatusCode.OK_200;
+                if (!success) {
+                    logger.debug(
+                        "Health check of AM endpoint {} failed: {}",
+                        endpoint,
+                        ar.succeeded() ? "status " + ar.result() : ar.cause().getMessage()
+                    );
+                }
+                if (endpoint.onHealthCheck(success, options.getHealthyThreshold(), options.getUnhealthyThreshold())) {
+                    if (endpoint.isHealthy()) {
+                        logger.info("AM endpoint {} is healthy again", endpoint);
+                    } else {
+                        logger.warn("AM endpoint {} is unhealthy, it is ejected from the load balancing", endpoint);
+                    }
+                }
+            });
+    }
+}
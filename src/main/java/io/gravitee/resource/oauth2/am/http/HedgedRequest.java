@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClientRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Sends a second, identical request when the first one is slow to answer, and keeps the first result.
+ *
+ * Once a result is kept, the request still in progress is reset with a {@link RequestCancelledException}. A failed result is
+ * only kept if no other request is in progress, so that a hedge which fails doesn't fail the call while the first request may
+ * still succeed.
+ *
+ * @author GraviteeSource Team
+ */
+public class HedgedRequest<T> {
+
+    /**
+     * One of the requests of a hedged call.
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        /**
+         * @param hedge <code>true</code> for the second request.
+         * @param onRequest to notify with the HTTP request once it is obtained, so that it can be cancelled.
+         * @param onResult to notify once with the result of the request.
+         */
+        void run(boolean hedge, Handler<HttpClientRequest> onRequest, Handler<T> onResult);
+    }
+
+    private final Vertx vertx;
+    private final HedgingPolicy policy;
+    private final Predicate<T> failed;
+    private final Handler<T> handler;
+
+    private final List<Try> tries = new ArrayList<>(2);
+    private boolean done;
+    private long timerId = -1;
+
+    private HedgedRequest(Vertx vertx, HedgingPolicy policy, Predicate<T> failed, Handler<T> handler) {
+        this.vertx = vertx;
+        this.policy = policy;
+        this.failed = failed;
+        this.handler = handler;
+    }
+
+    /**
+     * @param failed tells whether a result is a failure, which is not kept while another request is in progress.
+     * @param handler the handler notified once with the kept result.
+     */
+    public static <T> void execute(Vertx vertx, HedgingPolicy policy, Attempt<T> attempt, Predicate<T> failed, Handler<T> handler) {
+        new HedgedRequest<>(vertx, policy, failed, handler).start(attempt);
+    }
+
+    private void start(Attempt<T> attempt) {
+        policy.onRequest();
+        run(attempt, false);
+
+        long delay = policy.delay();
+        if (delay >= 0) {
+            synchronized (this) {
+                if (!done) {
+                    timerId = vertx.setTimer(Math.max(1, delay), id -> hedge(attempt));
+                }
+            }
+        }
+    }
+
+    private void hedge(Attempt<T> attempt) {
+        synchronized (this) {
+            timerId = -1;
+            if (done) {
+                return;
+            }
+        }
+        if (policy.tryAcquireHedge()) {
+            run(attempt, true);
+        }
+    }
+
+    private void run(Attempt<T> attempt, boolean hedge) {
+        final Try current = new Try();
+        synchronized (this) {
+            tries.add(current);
+        }
+        attempt.run(hedge, request -> register(current, request), result -> complete(current, result));
+    }
+
+    private void register(Try current, HttpClientRequest request) {
+        synchronized (this) {
+            if (!done || current.completed) {
+                current.request = request;
+                return;
+            }
+        }
+        // the call completed while this request was waiting for a connection
+        cancel(request);
+    }
+
+    private void complete(Try current, T result) {
+        final boolean failure = failed.test(result);
+        final List<HttpClientRequest> losers = new ArrayList<>(1);
+        final long start;
+        synchronized (this) {
+            current.completed = true;
+            if (done || (failure && tries.stream().anyMatch(other -> !other.completed))) {
+                return;
+            }
+
+            done = true;
+            // the latency of the call, as seen by the caller, even when the hedge answered first
+            start = tries.get(0).start;
+            if (timerId != -1) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+            for (Try other : tries) {
+                if (!other.completed && other.request != null) {
+                    losers.add(other.request);
+                }
+            }
+        }
+
+        if (!failure) {
+            policy.recordLatency(System.nanoTime() - start);
+        }
+        losers.forEach(HedgedRequest::cancel);
+        handler.handle(result);
+    }
+
+    private static void cancel(HttpClientRequest request) {
+        request.reset(0, new RequestCancelledException("The request has been hedged and the other request answered first"));
+    }
+
+    private static final class Try {
+
+        private final long start = System.nanoTime();
+        private HttpClientRequest request;
+        private boolean completed;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import io.gravitee.resource.oauth2.am.configuration.HedgingOptions;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a request is hedged, and bounds the share of hedged requests.
+ *
+ * The hedging delay is either fixed, or the configured percentile of the latency of the most recent requests. The budget is a
+ * token bucket: each request deposits the budget percentage of a token, and each hedge costs a whole token, so that at most this
+ * percentage of the requests are hedged over time, with a bounded burst.
+ *
+ * @author GraviteeSource Team
+ */
+public class HedgingPolicy {
+
+    /**
+     * Number of the most recent latencies the percentile is computed on.
+     */
+    private static final int WINDOW = 256;
+
+    /**
+     * Number of latencies recorded between two computations of the percentile, and before the first one.
+     */
+    private static final int REFRESH_INTERVAL = 64;
+
+    private static final long TOKEN = 100;
+
+    /**
+     * Maximum number of hedges which can be saved up during quiet periods.
+     */
+    private static final long MAX_BURST = 10;
+
+    private final long fixedDelay;
+    private final int percentile;
+    private final long deposit;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    private final long[] latencies = new long[WINDOW];
+    private int position;
+    private int count;
+    private int sinceRefresh;
+    private volatile long observedDelay = -1;
+
+    public HedgingPolicy(HedgingOptions options) {
+        this.fixedDelay = Math.max(0, options.getDelay());
+        this.percentile = Math.min(100, Math.max(1, options.getPercentile()));
+        this.deposit = Math.min(TOKEN, Math.max(0, options.getBudget())) * TOKEN / 100;
+    }
+
+    /**
+     * @return the delay (in milliseconds) after which the request is hedged, <code>-1</code> if it must not be hedged because
+     * not enough latencies have been observed yet.
+     */
+    public long delay() {
+        return fixedDelay > 0 ? fixedDelay : observedDelay;
+    }
+
+    /**
+     * Deposits the share of budget of a new request.
+     */
+    public void onRequest() {
+        balance.getAndUpdate(current -> Math.min(MAX_BURST * TOKEN, current + deposit));
+    }
+
+    /**
+     * @return <code>true</code> if the budget allows a hedge, which is then withdrawn from it.
+     */
+    public boolean tryAcquireHedge() {
+        for (;;) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Records the latency of a successful call, from its first request, even when the hedge answered first.
+     *
+     * @param latency the latency, in nanoseconds.
+     */
+    public synchronized void recordLatency(long latency) {
+        latencies[position] = latency;
+        position = (position + 1) % WINDOW;
+        count = Math.min(WINDOW, count + 1);
+
+        if (++sinceRefresh >= REFRESH_INTERVAL) {
+            sinceRefresh = 0;
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = Math.min(count - 1, (int) Math.ceil(count * percentile / 100.0) - 1);
+            observedDelay = Math.max(1, TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]));
+        }
+    }
+}
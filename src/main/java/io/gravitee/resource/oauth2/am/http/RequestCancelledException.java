@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cause of the reset of a request whose result is not needed anymore, such as the slowest of two hedged requests.
+ *
+ * @author GraviteeSource Team
+ */
+public class RequestCancelledException extends CancellationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestCancelledException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // thrown on purpose, the stack trace is of no use
+        return this;
+    }
+}
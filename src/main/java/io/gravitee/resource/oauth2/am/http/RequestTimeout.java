@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.resource.oauth2.am.concurrent.Cancellation;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClientRequest;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Bounds the overall duration of an HTTP call, from the moment it is created to the end of the response, including the wait for a
+ * connection of the pool.
+ *
+ * It wraps the handler of the call: once the timeout is elapsed, or once the call is cancelled, the call fails at once and its
+ * request, if already obtained, is reset so that its connection is released. A request obtained afterwards is reset instead of
+ * being sent. The wrapped handler is notified only once, whatever the number of error paths the failure goes through.
+ *
+ * @author GraviteeSource Team
+ */
+public class RequestTimeout<T> implements Handler<T> {
+
+    private final Vertx vertx;
+    private final Handler<T> handler;
+    private final Function<Throwable, T> failure;
+    private final long timeout;
+
+    private final AtomicBoolean done = new AtomicBoolean();
+    private volatile long timerId = -1;
+    private volatile Cancellation.Registration registration;
+    private volatile HttpClientRequest request;
+
+    /**
+     * Starts the timeout, the instance must be created right before requesting a connection.
+     *
+     * @param timeout the overall timeout, in milliseconds, <code>0</code> for none.
+     * @param cancellation the cancellation of the call, or <code>null</code> if it can't be cancelled.
+     * @param failure builds the result of the failed call.
+     */
+    public RequestTimeout(Vertx vertx, long timeout, Cancellation cancellation, Function<Throwable, T> failure, Handler<T> handler) {
+        this.vertx = vertx;
+        this.timeout = timeout;
+        this.failure = failure;
+        this.handler = handler;
+
+        if (timeout > 0) {
+            timerId = vertx.setTimer(timeout, id -> expire(timeoutException()));
+        }
+        if (cancellation != null) {
+            registration = cancellation.onCancel(() -> expire(new RequestCancelledException("The call has been cancelled by its caller")));
+        }
+        if (done.get()) {
+            // expired while arming
+            cleanUp();
+        }
+    }
+
+    /**
+     * Watches the request once it has been obtained from the client. It is reset if the call has already expired.
+     *
+     * @return <code>true</code> if the request can be sent, <code>false</code> if the call has already expired.
+     */
+    public boolean watch(HttpClientRequest request) {
+        this.request = request;
+        if (done.get()) {
+            request.reset(0, expiredException());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the cause of the failure of a request obtained once the call has expired.
+     */
+    public static RequestCancelledException expiredException() {
+        return new RequestCancelledException("The call has already expired");
+    }
+
+    @Override
+    public void handle(T result) {
+        handle(result, null);
+    }
+
+    /**
+     * Completes the call with the given result, unless it has already completed.
+     *
+     * @param onCompletion run right before the handler is notified, only if the call completes with this result, or <code>null</code>.
+     */
+    public void handle(T result, Runnable onCompletion) {
+        if (complete()) {
+            if (onCompletion != null) {
+                onCompletion.run();
+            }
+            handler.handle(result);
+        }
+    }
+
+    /**
+     * Fails the call, unless it has already completed.
+     */
+    public void fail(Throwable throwable) {
+        if (complete()) {
+            handler.handle(failure.apply(throwable));
+        }
+    }
+
+    private void expire(Throwable cause) {
+        if (complete()) {
+            HttpClientRequest current = request;
+            if (current != null) {
+                current.reset(0, cause);
+            }
+            handler.handle(failure.apply(cause));
+        }
+    }
+
+    private boolean complete() {
+        if (!done.compareAndSet(false, true)) {
+            return false;
+        }
+        cleanUp();
+        return true;
+    }
+
+    private void cleanUp() {
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+        }
+        if (registration != null) {
+            registration.unregister();
+        }
+    }
+
+    private TimeoutException timeoutException() {
+        return new TimeoutException("The request did not complete within " + timeout + "ms");
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import io.gravitee.resource.oauth2.api.OAuth2ResourceException;
+
+/**
+ * Failure of a call to which AM answered, but not with the expected response: an error status, or a body that can't be read.
+ *
+ * @author GraviteeSource Team
+ */
+public class UnexpectedResponseException extends OAuth2ResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public UnexpectedResponseException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return <code>true</code> if AM failed to process the call, rather than refused it.
+     */
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.introspection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Typed view of the claims of an introspection response (RFC 7662).
+ *
+ * The well-known claims (<code>active</code>, <code>exp</code>, <code>scope</code>, <code>client_id</code> and <code>sub</code>) are
+ * extracted by a single streaming pass over the response body, which skips the values of the other claims but still checks that the
+ * whole body is a well-formed JSON object. The other claims are left as raw bytes and only decoded on the first call to
+ * {@link #get(String)} or {@link #asJsonObject()}.
+ *
+ * @author GraviteeSource Team
+ */
+public final class IntrospectionClaims {
+
+    static final String ACTIVE = "active";
+    static final String EXPIRATION = "exp";
+    static final String SCOPE = "scope";
+    static final String CLIENT_ID = "client_id";
+    static final String SUBJECT = "sub";
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final Buffer body;
+
+    private boolean active;
+    private Long expiration;
+    private String scope;
+    private String clientId;
+    private String subject;
+
+    private volatile JsonObject json;
+
+    private IntrospectionClaims(Buffer body) {
+        this.body = body;
+    }
+
+    /**
+     * Extracts the well-known claims of an introspection response.
+     *
+     * @throws DecodeException if the body is not a JSON object, or is truncated.
+     */
+    @SuppressWarnings("deprecation") // Vert.x 4 has no other way to read a Buffer without copying it
+    public static IntrospectionClaims parse(Buffer body) {
+        IntrospectionClaims claims = new IntrospectionClaims(body);
+        // ByteBufInputStream is also a DataInput, which Jackson parses differently
+        InputStream input = new ByteBufInputStream(body.getByteBuf());
+        try (JsonParser parser = FACTORY.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodeException("Introspection response is not a JSON object");
+            }
+
+            // the body is consumed up to the end of the object, a truncated response must not be trusted as active
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case ACTIVE -> claims.active = value == JsonToken.VALUE_TRUE;
+                    case EXPIRATION -> claims.expiration = value.isNumeric() ? parser.getLongValue() : null;
+                    case SCOPE -> claims.scope = text(parser, value);
+                    case CLIENT_ID -> claims.clientId = text(parser, value);
+                    case SUBJECT -> claims.subject = text(parser, value);
+                    default -> {
+                        // decoded lazily
+                    }
+                }
+                // skips the objects and arrays, including the well-known claims of an unexpected type
+                parser.skipChildren();
+            }
+            if (token != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                throw new DecodeException("Introspection response is not a complete JSON object");
+            }
+        } catch (IOException ex) {
+            throw new DecodeException("Failed to decode the introspection response: " + ex.getMessage(), ex);
+        }
+        return claims;
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+    }
+
+    /**
+     * @return <code>true</code> if the <code>active</code> claim is <code>true</code>.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return the <code>exp</code> claim (in seconds since epoch), or <code>null</code> if there is none.
+     */
+    public Long getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return the space-separated <code>scope</code> claim, or <code>null</code> if there is none.
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the scopes of the token, empty if there is no <code>scope</code> claim.
+     */
+    public List<String> getScopes() {
+        return scope == null || scope.isBlank() ? List.of() : Arrays.asList(scope.trim().split("\\s+"));
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the value of the given claim, decoding the whole response the first time a claim other than the well-known ones is read.
+     */
+    public Object get(String name) {
+        return switch (name) {
+            case ACTIVE -> active;
+            case EXPIRATION -> expiration;
+            case SCOPE -> scope;
+            case CLIENT_ID -> clientId;
+            case SUBJECT -> subject;
+            default -> asJsonObject().getValue(name);
+        };
+    }
+
+    /**
+     * @return all the claims of the response, decoded on the first call.
+     */
+    public JsonObject asJsonObject() {
+        JsonObject decoded = json;
+        if (decoded == null) {
+            decoded = body.toJsonObject();
+            json = decoded;
+        }
+        return decoded;
+    }
+}
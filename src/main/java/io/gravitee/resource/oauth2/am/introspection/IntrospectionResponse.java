@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.introspection;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Introspection result backed by the raw body returned by AM.
+ *
+ * The string payload expected by the policies is decoded from the body on each call to {@link #getPayload()}, and is not kept: a
+ * cached response only holds the body, shared with its claims, which are available through {@link #getClaims()}.
+ *
+ * @author GraviteeSource Team
+ */
+public class IntrospectionResponse extends OAuth2Response {
+
+    private final Buffer body;
+
+    private volatile IntrospectionClaims claims;
+
+    /**
+     * @param claims the claims already extracted from the body, or <code>null</code> to extract them on the first call to
+     * {@link #getClaims()}.
+     */
+    public IntrospectionResponse(boolean success, Buffer body, IntrospectionClaims claims) {
+        super(success, null);
+        this.body = body;
+        this.claims = claims;
+    }
+
+    @Override
+    public String getPayload() {
+        return body.toString();
+    }
+
+    /**
+     * @return the claims of the introspection response.
+     * @throws io.vertx.core.json.DecodeException if the body is not a JSON object.
+     */
+    public IntrospectionClaims getClaims() {
+        IntrospectionClaims parsed = claims;
+        if (parsed == null) {
+            parsed = IntrospectionClaims.parse(body);
+            claims = parsed;
+        }
+        return parsed;
+    }
+}
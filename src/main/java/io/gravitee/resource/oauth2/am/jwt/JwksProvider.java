@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.jwt;
+
+import io.gravitee.common.http.HttpStatusCode;
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.resource.oauth2.am.concurrent.SingleFlight;
+import io.gravitee.resource.oauth2.am.endpoint.Endpoint;
+import io.gravitee.resource.oauth2.am.endpoint.EndpointGroup;
+import io.gravitee.resource.oauth2.am.http.RequestTimeout;
+import io.gravitee.resource.oauth2.api.OAuth2ResourceException;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches and caches the public signing keys published by the JWKS endpoint of the security domain.
+ *
+ * The key set is the same on every AM endpoint, it is fetched from the endpoint selected by the {@link EndpointGroup}, so that an
+ * unhealthy endpoint is avoided as for the other calls.
+ *
+ * The key set is fetched again once it is older than the maximum age, or when a token refers to an unknown <code>kid</code>.
+ * Fetches are coalesced and never happen more often than the minimum refresh interval.
+ *
+ * @author GraviteeSource Team
+ */
+public class JwksProvider {
+
+    private final Logger logger = LoggerFactory.getLogger(JwksProvider.class);
+
+    private static final String KEYS = "keys";
+    private static final String KEY_ID = "kid";
+    private static final String KEY_TYPE = "kty";
+    private static final String KEY_USE = "use";
+    private static final String SIGNATURE_USE = "sig";
+
+    private static final String RSA = "RSA";
+    private static final String EC = "EC";
+
+    private static final Map<String, String> EC_CURVES = Map.of("P-256", "secp256r1", "P-384", "secp384r1", "P-521", "secp521r1");
+
+    private static final String FETCH_KEY = "jwks";
+
+    private final Vertx vertx;
+    private final EndpointGroup endpointGroup;
+    private final Map<Endpoint, RequestOptions> requests;
+    private final long timeout;
+    private final long minRefreshInterval;
+    private final long maxAge;
+    private final LongSupplier clock;
+
+    private final SingleFlight<String, Map<String, PublicKey>> fetchFlight = new SingleFlight<>();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastFetch;
+    private volatile long lastFetchAttempt;
+
+    /**
+     * @param requests the request of the key set, for each endpoint of the group.
+     * @param timeout the overall timeout of a fetch, in milliseconds, <code>0</code> for none.
+     * @param minRefreshInterval the minimum delay between two fetches, in milliseconds.
+     * @param maxAge the delay after which the key set is fetched again, in milliseconds.
+     */
+    public JwksProvider(
+        Vertx vertx,
+        EndpointGroup endpointGroup,
+        Map<Endpoint, RequestOptions> requests,
+        long timeout,
+        long minRefreshInterval,
+        long maxAge
+    ) {
+        this(vertx, endpointGroup, requests, timeout, minRefreshInterval, maxAge, System::currentTimeMillis);
+    }
+
+    JwksProvider(
+        Vertx vertx,
+        EndpointGroup endpointGroup,
+        Map<Endpoint, RequestOptions> requests,
+        long timeout,
+        long minRefreshInterval,
+        long maxAge,
+        LongSupplier clock
+    ) {
+        this.vertx = vertx;
+        this.endpointGroup = endpointGroup;
+        this.requests = requests;
+        this.timeout = timeout;
+        this.minRefreshInterval = minRefreshInterval;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    /**
+     * Resolves the public key identified by the given <code>kid</code>, fetching the key set again if needed.
+     *
+     * @param kid the key identifier, may be <code>null</code> if the key set holds a single key.
+     * @param handler called with the key, or with <code>null</code> if it can't be resolved.
+     */
+    public void getKey(String kid, Handler<PublicKey> handler) {
+        long now = clock.getAsLong();
+        PublicKey key = lookup(keys, kid);
+
+        boolean stale = now - lastFetch > maxAge;
+        if (key != null && !stale) {
+            handler.handle(key);
+            return;
+        }
+
+        if (now - lastFetchAttempt < minRefreshInterval) {
+            // Do not hammer the JWKS endpoint, rely on the current key set
+            handler.handle(key);
+            return;
+        }
+
+        fetchFlight.execute(FETCH_KEY, fetchedKeys -> handler.handle(lookup(fetchedKeys, kid)), this::fetch);
+    }
+
+    private void fetch(Handler<Map<String, PublicKey>> handler) {
+        lastFetchAttempt = clock.getAsLong();
+        final Endpoint endpoint = endpointGroup.select();
+        final RequestOptions reqOptions = requests.get(endpoint);
+        logger.debug("Fetch JWKS from {}", endpoint);
+
+        final long start = System.nanoTime();
+        endpoint.onRequest();
+        // the outcome is recorded once, by the path completing the call
+        final RequestTimeout<Buffer> responseHandler = new RequestTimeout<>(
+            vertx,
+            timeout,
+            null,
+            throwable -> {
+                logger.error("An error occurs while fetching JWKS from {}", endpoint, throwable);
+                endpoint.onResult(System.nanoTime() - start, true);
+                return null;
+            },
+            buffer -> {
+                endpoint.onResponse();
+                if (buffer != null) {
+                    endpoint.onResult(System.nanoTime() - start, false);
+                    try {
+                        keys = parse(buffer.toJsonObject());
+                        lastFetch = clock.getAsLong();
+                    } catch (Exception ex) {
+                        logger.error("An error occurs while parsing JWKS", ex);
+                    }
+                }
+                handler.handle(keys);
+            }
+        );
+
+        endpoint
+            .getHttpClient()
+            .request(reqOptions)
+            .compose(request -> {
+                if (!responseHandler.watch(request)) {
+                    return Future.failedFuture(RequestTimeout.expiredException());
+                }
+                return request.send().compose(this::body);
+            })
+            .onSuccess(responseHandler::handle)
+            .onFailure(responseHandler::fail);
+    }
+
+    private Future<Buffer> body(HttpClientResponse response) {
+        if (response.statusCode() != HttpStatusCode.OK_200) {
+            return Future.failedFuture(
+                new OAuth2ResourceException("JWKS endpoint returns a response with a " + response.statusCode() + " status code")
+            );
+        }
+        return response.body();
+    }
+
+    private static PublicKey lookup(Map<String, PublicKey> keys, String kid) {
+        if (kid == null) {
+            return keys.size() == 1 ? keys.values().iterator().next() : null;
+        }
+        return keys.get(kid);
+    }
+
+    static Map<String, PublicKey> parse(JsonObject jwks) throws Exception {
+        Map<String, PublicKey> parsed = new HashMap<>();
+        JsonArray keys = jwks.getJsonArray(KEYS, new JsonArray());
+
+        for (int i = 0; i < keys.size(); i++) {
+            JsonObject jwk = keys.getJsonObject(i);
+            String use = jwk.getString(KEY_USE);
+            if (use != null && !SIGNATURE_USE.equals(use)) {
+                continue;
+            }
+
+            PublicKey key = toPublicKey(jwk);
+            if (key != null) {
+                parsed.put(jwk.getString(KEY_ID, String.valueOf(i)), key);
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+
+    private static PublicKey toPublicKey(JsonObject jwk) throws Exception {
+        String type = jwk.getString(KEY_TYPE);
+        if (RSA.equals(type)) {
+            return KeyFactory
+                .getInstance(RSA)
+                .generatePublic(new RSAPublicKeySpec(decode(jwk.getString("n")), decode(jwk.getString("e"))));
+        } else if (EC.equals(type)) {
+            String curve = EC_CURVES.get(jwk.getString("crv"));
+            if (curve == null) {
+                return null;
+            }
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance(EC);
+            parameters.init(new ECGenParameterSpec(curve));
+            ECPoint point = new ECPoint(decode(jwk.getString("x")), decode(jwk.getString("y")));
+            return KeyFactory
+                .getInstance(EC)
+                .generatePublic(new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+        }
+        // Symmetric keys (oct) are never published, other key types are not supported
+        return null;
+    }
+
+    private static BigInteger decode(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.jwt;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Outcome of the local validation of a JWT access token.
+ *
+ * @param status the validation status.
+ * @param claims the claims of the token, only set when the token is valid.
+ * @param reason the reason why the token is invalid or can't be verified locally.
+ *
+ * @author GraviteeSource Team
+ */
+public record JwtValidationResult(Status status, JsonObject claims, String reason) {
+    public enum Status {
+        /**
+         * The signature and the claims of the token have been verified.
+         */
+        VALID,
+        /**
+         * The token has been rejected: wrong signature or expired. Such a token can't become active, its rejection can be cached.
+         */
+        INVALID,
+        /**
+         * The token can't be verified locally (unknown key, unsupported algorithm, unexpected issuer or audience, not yet valid, ...)
+         * and must be introspected by AM.
+         */
+        UNVERIFIABLE,
+    }
+
+    static JwtValidationResult valid(JsonObject claims) {
+        return new JwtValidationResult(Status.VALID, claims, null);
+    }
+
+    static JwtValidationResult invalid(String reason) {
+        return new JwtValidationResult(Status.INVALID, null, reason);
+    }
+
+    static JwtValidationResult unverifiable(String reason) {
+        return new JwtValidationResult(Status.UNVERIFIABLE, null, reason);
+    }
+}
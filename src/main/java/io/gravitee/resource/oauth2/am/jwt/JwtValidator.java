@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.jwt;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Validates JWT access tokens locally: <code>typ</code> header, signature against the JWKS of the security domain, then
+ * <code>exp</code>, <code>nbf</code>, <code>iss</code> and <code>aud</code> claims. A token of another type or audience, such as
+ * an ID token signed with the same keys, is left to the introspection endpoint.
+ *
+ * @author GraviteeSource Team
+ */
+public class JwtValidator {
+
+    private static final char SEGMENT_SEPARATOR = '.';
+    private static final String JOSE_HEADER_PREFIX = "eyJ";
+
+    private static final String ALGORITHM = "alg";
+    private static final String KEY_ID = "kid";
+    private static final String TYPE = "typ";
+    private static final String MEDIA_TYPE_PREFIX = "application/";
+
+    private static final String EXPIRATION_CLAIM = "exp";
+    private static final String NOT_BEFORE_CLAIM = "nbf";
+    private static final String ISSUER_CLAIM = "iss";
+    private static final String AUDIENCE_CLAIM = "aud";
+
+    private static final String RSASSA_PSS = "RSASSA-PSS";
+
+    private static final Map<String, String> SIGNATURE_ALGORITHMS = Map.of(
+        "RS256",
+        "SHA256withRSA",
+        "RS384",
+        "SHA384withRSA",
+        "RS512",
+        "SHA512withRSA",
+        "ES256",
+        "SHA256withECDSAinP1363Format",
+        "ES384",
+        "SHA384withECDSAinP1363Format",
+        "ES512",
+        "SHA512withECDSAinP1363Format"
+    );
+
+    private static final Map<String, PSSParameterSpec> PSS_PARAMETERS = Map.of(
+        "PS256",
+        new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1),
+        "PS384",
+        new PSSParameterSpec("SHA-384", "MGF1", MGF1ParameterSpec.SHA384, 48, 1),
+        "PS512",
+        new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1)
+    );
+
+    private final JwksProvider jwksProvider;
+    private final String issuer;
+    private final String tokenType;
+    private final String audience;
+    private final long clockSkew;
+    private final LongSupplier clock;
+
+    /**
+     * @param tokenType the expected <code>typ</code> header, or <code>null</code> to accept any type.
+     * @param audience the expected <code>aud</code> claim, or <code>null</code> to accept any audience.
+     * @param clockSkew the tolerated clock skew, in seconds.
+     */
+    public JwtValidator(JwksProvider jwksProvider, String issuer, String tokenType, String audience, long clockSkew) {
+        this(jwksProvider, issuer, tokenType, audience, clockSkew, System::currentTimeMillis);
+    }
+
+    JwtValidator(JwksProvider jwksProvider, String issuer, String tokenType, String audience, long clockSkew, LongSupplier clock) {
+        this.jwksProvider = jwksProvider;
+        this.issuer = issuer;
+        this.tokenType = tokenType;
+        this.audience = audience;
+        this.clockSkew = clockSkew;
+        this.clock = clock;
+    }
+
+    /**
+     * @return <code>true</code> if the token looks like a signed JWT (three segments with a JSON header), <code>false</code> for opaque tokens.
+     */
+    public static boolean isJwt(String token) {
+        int first = token.indexOf(SEGMENT_SEPARATOR);
+        int second = token.indexOf(SEGMENT_SEPARATOR, first + 1);
+        return (
+            token.startsWith(JOSE_HEADER_PREFIX) &&
+            first > 0 &&
+            second > first + 1 &&
+            second < token.length() - 1 &&
+            token.indexOf(SEGMENT_SEPARATOR, second + 1) == -1
+        );
+    }
+
+    public void validate(String token, Handler<JwtValidationResult> handler) {
+        int first = token.indexOf(SEGMENT_SEPARATOR);
+        int second = token.indexOf(SEGMENT_SEPARATOR, first + 1);
+
+        final JsonObject header;
+        try {
+            header = decode(token.substring(0, first));
+        } catch (Exception ex) {
+            handler.handle(JwtValidationResult.unverifiable("Malformed JOSE header"));
+            return;
+        }
+
+        String algorithm = header.getString(ALGORITHM);
+        if (!SIGNATURE_ALGORITHMS.containsKey(algorithm) && !PSS_PARAMETERS.containsKey(algorithm)) {
+            handler.handle(JwtValidationResult.unverifiable("Unsupported algorithm " + algorithm));
+            return;
+        }
+
+        if (!isExpectedType(header.getValue(TYPE))) {
+            handler.handle(JwtValidationResult.unverifiable("Unexpected token type " + header.getValue(TYPE)));
+            return;
+        }
+
+        jwksProvider.getKey(
+            header.getString(KEY_ID),
+            key -> {
+                if (key == null) {
+                    handler.handle(JwtValidationResult.unverifiable("Unknown signing key " + header.getString(KEY_ID)));
+                } else {
+                    handler.handle(verify(token, first, second, algorithm, key));
+                }
+            }
+        );
+    }
+
+    private JwtValidationResult verify(String token, int first, int second, String algorithm, PublicKey key) {
+        try {
+            if (!verifySignature(token, second, algorithm, key)) {
+                return JwtValidationResult.invalid("Invalid signature");
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException ex) {
+            return JwtValidationResult.invalid("Invalid signature: " + ex.getMessage());
+        }
+
+        final JsonObject claims;
+        try {
+            claims = decode(token.substring(first + 1, second));
+        } catch (Exception ex) {
+            return JwtValidationResult.unverifiable("Malformed claims");
+        }
+
+        long now = TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong());
+
+        if (!(claims.getValue(EXPIRATION_CLAIM) instanceof Number expiration)) {
+            return JwtValidationResult.unverifiable("Missing exp claim");
+        }
+        if (now > expiration.longValue() + clockSkew) {
+            return JwtValidationResult.invalid("Token expired");
+        }
+        if (claims.getValue(NOT_BEFORE_CLAIM) instanceof Number notBefore && now + clockSkew < notBefore.longValue()) {
+            return JwtValidationResult.unverifiable("Token not yet valid");
+        }
+        if (issuer != null && !issuer.equals(claims.getString(ISSUER_CLAIM))) {
+            return JwtValidationResult.unverifiable("Unexpected issuer " + claims.getValue(ISSUER_CLAIM));
+        }
+        if (audience != null && !hasAudience(claims.getValue(AUDIENCE_CLAIM))) {
+            return JwtValidationResult.unverifiable("Unexpected audience " + claims.getValue(AUDIENCE_CLAIM));
+        }
+
+        return JwtValidationResult.valid(claims);
+    }
+
+    /**
+     * Compares the <code>typ</code> header with the expected type, whose <code>application/</code> prefix may be omitted
+     * (RFC 7515).
+     */
+    private boolean isExpectedType(Object type) {
+        if (tokenType == null) {
+            return true;
+        }
+        if (!(type instanceof String value)) {
+            return false;
+        }
+        if (value.regionMatches(true, 0, MEDIA_TYPE_PREFIX, 0, MEDIA_TYPE_PREFIX.length())) {
+            value = value.substring(MEDIA_TYPE_PREFIX.length());
+        }
+        return value.equalsIgnoreCase(tokenType);
+    }
+
+    private boolean hasAudience(Object claim) {
+        if (claim instanceof JsonArray audiences) {
+            return audiences.contains(audience);
+        }
+        return audience.equals(claim);
+    }
+
+    private static boolean verifySignature(String token, int second, String algorithm, PublicKey key) throws GeneralSecurityException {
+        final Signature signature;
+        PSSParameterSpec pssParameters = PSS_PARAMETERS.get(algorithm);
+        if (pssParameters != null) {
+            signature = Signature.getInstance(RSASSA_PSS);
+            signature.setParameter(pssParameters);
+        } else {
+            signature = Signature.getInstance(SIGNATURE_ALGORITHMS.get(algorithm));
+        }
+
+        signature.initVerify(key);
+        signature.update(token.substring(0, second).getBytes(StandardCharsets.US_ASCII));
+        return signature.verify(Base64.getUrlDecoder().decode(token.substring(second + 1)));
+    }
+
+    private static JsonObject decode(String segment) {
+        return Buffer.buffer(Base64.getUrlDecoder().decode(segment)).toJsonObject();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ConnectTimeoutException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the calls to AM and of the caches in front of them, tagged by security domain and AM version.
+ *
+ * The meters are resolved once at creation, recording is a plain increment on the hot path. Resources targeting the same security
+ * domain and version share their meters.
+ *
+ * @author GraviteeSource Team
+ */
+public class AccessManagementMetrics {
+
+    static final String CALLS = "oauth2.am.calls";
+    static final String CALL_OUTCOMES = "oauth2.am.calls.outcome";
+    static final String CALLS_IN_FLIGHT = "oauth2.am.calls.in_flight";
+    static final String POOL_WAIT = "oauth2.am.pool.wait";
+    static final String CACHE_REQUESTS = "oauth2.am.cache.requests";
+    static final String CACHE_EVICTIONS = "oauth2.am.cache.evictions";
+    static final String CIRCUIT_BREAKER_TRANSITIONS = "oauth2.am.circuitbreaker.transitions";
+    static final String CONCURRENCY_LIMIT = "oauth2.am.concurrency.limit";
+    static final String HEDGES = "oauth2.am.hedges";
+
+    private static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+    private final Map<Operation, Timer> calls = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongTaskTimer> callsInFlight = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> poolWaits = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Outcome, Counter>> outcomes = new EnumMap<>(Operation.class);
+
+    private final Map<Cache, Counter> cacheHits = new EnumMap<>(Cache.class);
+    private final Map<Cache, Counter> cacheMisses = new EnumMap<>(Cache.class);
+    private final Map<Cache, Counter> cacheEvictions = new EnumMap<>(Cache.class);
+    private final Counter staleHits;
+    private final Counter hedges;
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+
+    public AccessManagementMetrics(MeterRegistry registry, String securityDomain, String version) {
+        this.registry = registry;
+        this.tags = Tags.of("security_domain", String.valueOf(securityDomain), "am_version", String.valueOf(version));
+
+        for (Operation operation : Operation.values()) {
+            Tags operationTags = tags.and("operation", operation.tag());
+            calls.put(
+                operation,
+                Timer
+                    .builder(CALLS)
+                    .description("Duration of the calls to AM")
+                    .tags(operationTags)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registry)
+            );
+            callsInFlight.put(
+                operation,
+                LongTaskTimer.builder(CALLS_IN_FLIGHT).description("Calls to AM in progress").tags(operationTags).register(registry)
+            );
+            poolWaits.put(
+                operation,
+                Timer
+                    .builder(POOL_WAIT)
+                    .description("Time waited for a connection to AM from the pool")
+                    .tags(operationTags)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry)
+            );
+
+            Map<Outcome, Counter> operationOutcomes = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                operationOutcomes.put(
+                    outcome,
+                    Counter
+                        .builder(CALL_OUTCOMES)
+                        .description("Outcomes of the calls to AM")
+                        .tags(operationTags.and("outcome", outcome.tag()))
+                        .register(registry)
+                );
+            }
+            outcomes.put(operation, operationOutcomes);
+        }
+
+        for (Cache cache : Cache.values()) {
+            Tags cacheTags = tags.and("cache", cache.tag());
+            cacheHits.put(cache, cacheRequests(cacheTags.and("result", "hit")));
+            cacheMisses.put(cache, cacheRequests(cacheTags.and("result", "miss")));
+            cacheEvictions.put(
+                cache,
+                Counter.builder(CACHE_EVICTIONS).description("Entries evicted from the caches").tags(cacheTags).register(registry)
+            );
+        }
+        staleHits = cacheRequests(tags.and("cache", Cache.INTROSPECTION.tag(), "result", "stale"));
+        hedges =
+            Counter
+                .builder(HEDGES)
+                .description("Second requests sent because the first one was slow to answer")
+                .tags(tags.and("operation", Operation.INTROSPECT.tag()))
+                .register(registry);
+    }
+
+    private Counter cacheRequests(Tags cacheTags) {
+        return Counter.builder(CACHE_REQUESTS).description("Lookups in the caches").tags(cacheTags).register(registry);
+    }
+
+    /**
+     * Starts tracking a call in progress, the returned sample must be stopped once the call completes.
+     */
+    public LongTaskTimer.Sample startCall(Operation operation) {
+        return callsInFlight.get(operation).start();
+    }
+
+    public void recordCall(Operation operation, long durationNanos, Outcome outcome) {
+        calls.get(operation).record(durationNanos, TimeUnit.NANOSECONDS);
+        outcomes.get(operation).get(outcome).increment();
+    }
+
+    /**
+     * Records a call which has not been sent to AM, such as a call rejected by the circuit breaker.
+     */
+    public void recordRejectedCall(Operation operation, Outcome outcome) {
+        outcomes.get(operation).get(outcome).increment();
+    }
+
+    public void recordPoolWait(Operation operation, long durationNanos) {
+        poolWaits.get(operation).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCacheHit(Cache cache) {
+        cacheHits.get(cache).increment();
+    }
+
+    public void recordCacheMiss(Cache cache) {
+        cacheMisses.get(cache).increment();
+    }
+
+    public void recordCacheEviction(Cache cache) {
+        cacheEvictions.get(cache).increment();
+    }
+
+    public void recordStaleHit() {
+        staleHits.increment();
+    }
+
+    public void recordHedge() {
+        hedges.increment();
+    }
+
+    public void recordCircuitBreakerTransition(String state) {
+        Counter
+            .builder(CIRCUIT_BREAKER_TRANSITIONS)
+            .description("State transitions of the circuit breaker")
+            .tags(tags.and("state", state.toLowerCase(Locale.ROOT)))
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Exposes the current limit of the calls to AM in progress. The returned gauge must be removed once the limit is not
+     * maintained anymore.
+     */
+    public Gauge registerConcurrencyLimit(Supplier<Number> limit) {
+        return Gauge
+            .builder(CONCURRENCY_LIMIT, limit)
+            .description("Calls to AM allowed in progress by the adaptive concurrency limiter")
+            .tags(tags)
+            .strongReference(true)
+            .register(registry);
+    }
+
+    public void remove(Meter meter) {
+        registry.remove(meter);
+    }
+
+    /**
+     * @return the outcome of a call which failed with the given error.
+     */
+    public static Outcome failure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof ConnectTimeoutException) {
+                return Outcome.TIMEOUT;
+            }
+            if (cause instanceof CancellationException) {
+                return Outcome.CANCELLED;
+            }
+        }
+        return Outcome.TRANSPORT_ERROR;
+    }
+
+    public enum Operation {
+        INTROSPECT,
+        USERINFO;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Outcome {
+        ACTIVE,
+        INACTIVE,
+        /**
+         * The userinfo has been returned.
+         */
+        SUCCESS,
+        NON_200,
+        TRANSPORT_ERROR,
+        TIMEOUT,
+        CIRCUIT_OPEN,
+        /**
+         * The call has been rejected by the adaptive concurrency limiter.
+         */
+        LIMIT_EXCEEDED,
+        /**
+         * The call has been cancelled because its result was not needed anymore.
+         */
+        CANCELLED;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Cache {
+        INTROSPECTION,
+        NEGATIVE_INTROSPECTION,
+        SHARED_INTROSPECTION,
+        USERINFO;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.revocation;
+
+import io.gravitee.common.http.HttpStatusCode;
+import io.gravitee.common.http.MediaType;
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.resource.oauth2.api.OAuth2ResourceException;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonObject;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically polls a revocation feed over HTTP.
+ *
+ * The feed answers <code>{"cursor": "...", "events": [...]}</code>. The cursor of the last response is sent back as the
+ * <code>cursor</code> query parameter of the next poll, so that the feed only returns the events which happened since.
+ *
+ * @author GraviteeSource Team
+ */
+public class PollingRevocationSource implements RevocationSource {
+
+    private final Logger logger = LoggerFactory.getLogger(PollingRevocationSource.class);
+
+    private static final String CURSOR = "cursor";
+
+    private final Vertx vertx;
+    private final HttpClient httpClient;
+    private final String url;
+    private final String authorization;
+    private final String userAgent;
+    private final long interval;
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    private volatile String cursor;
+
+    private long timerId = -1;
+
+    /**
+     * @param authorization the value of the <code>Authorization</code> header, or <code>null</code> for none.
+     * @param interval the delay between two polls, in milliseconds.
+     */
+    public PollingRevocationSource(Vertx vertx, HttpClient httpClient, String url, String authorization, String userAgent, long interval) {
+        this.vertx = vertx;
+        this.httpClient = httpClient;
+        this.url = url;
+        this.authorization = authorization;
+        this.userAgent = userAgent;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start(Handler<RevocationEvent> listener) {
+        timerId = vertx.setPeriodic(0, interval, id -> poll(listener));
+    }
+
+    @Override
+    public void stop() {
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+    }
+
+    void poll(Handler<RevocationEvent> listener) {
+        if (!polling.compareAndSet(false, true)) {
+            // the previous poll is still running
+            return;
+        }
+
+        final RequestOptions reqOptions = new RequestOptions()
+            .setMethod(HttpMethod.GET)
+            .setAbsoluteURI(cursor != null ? url + (url.contains("?") ? '&' : '?') + CURSOR + '=' + encode(cursor) : url)
+            .putHeader(HttpHeaderNames.ACCEPT, MediaType.APPLICATION_JSON)
+            .setTimeout(interval);
+        if (userAgent != null) {
+            reqOptions.putHeader(HttpHeaderNames.USER_AGENT, userAgent);
+        }
+        if (authorization != null) {
+            reqOptions.putHeader(HttpHeaderNames.AUTHORIZATION, authorization);
+        }
+
+        httpClient
+            .request(reqOptions)
+            .compose(HttpClientRequest::send)
+            .compose(this::body)
+            .onComplete(ar -> {
+                polling.set(false);
+                if (ar.failed()) {
+                    logger.warn("An error occurs while polling the revocation feed {}: {}", url, ar.cause().getMessage());
+                    return;
+                }
+
+                try {
+                    JsonObject feed = ar.result().toJsonObject();
+                    for (RevocationEvent event : RevocationEvent.parse(feed)) {
+                        listener.handle(event);
+                    }
+                    if (feed.getValue(CURSOR) instanceof String next) {
+                        cursor = next;
+                    }
+                } catch (Exception ex) {
+                    logger.warn("An error occurs while reading the revocation feed {}", url, ex);
+                }
+            });
+    }
+
+    private Future<Buffer> body(HttpClientResponse response) {
+        if (response.statusCode() != HttpStatusCode.OK_200) {
+            return Future.failedFuture(
+                new OAuth2ResourceException("Revocation feed returns a response with a " + response.statusCode() + " status code")
+            );
+        }
+        return response.body();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.revocation;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Revocation of a token, of all the tokens of a user or of all the tokens of an application.
+ *
+ * In JSON, an event is written as <code>{"type": "subject", "value": "..."}</code>, the type being one of <code>token</code>,
+ * <code>token_hash</code>, <code>subject</code> and <code>client_id</code>.
+ *
+ * @param type what the value identifies.
+ * @param value the access token, the base64url-encoded SHA-256 of the access token, the subject or the client id.
+ *
+ * @author GraviteeSource Team
+ */
+public record RevocationEvent(Type type, String value) {
+    private static final String TYPE = "type";
+    private static final String VALUE = "value";
+    private static final String EVENTS = "events";
+
+    public enum Type {
+        TOKEN("token"),
+        TOKEN_HASH("token_hash"),
+        SUBJECT("subject"),
+        CLIENT_ID("client_id");
+
+        private final String value;
+
+        Type(String value) {
+            this.value = value;
+        }
+
+        static Type of(String value) {
+            for (Type type : values()) {
+                if (type.value.equals(value)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static RevocationEvent token(String accessToken) {
+        return new RevocationEvent(Type.TOKEN, accessToken);
+    }
+
+    public static RevocationEvent subject(String subject) {
+        return new RevocationEvent(Type.SUBJECT, subject);
+    }
+
+    public static RevocationEvent clientId(String clientId) {
+        return new RevocationEvent(Type.CLIENT_ID, clientId);
+    }
+
+    /**
+     * Reads the events of a body holding either a single event, or an object with an <code>events</code> array. The events of an
+     * unknown type are skipped.
+     *
+     * @throws DecodeException if the body is not a JSON object.
+     */
+    public static List<RevocationEvent> parse(Buffer body) {
+        return parse(body.toJsonObject());
+    }
+
+    static List<RevocationEvent> parse(JsonObject json) {
+        JsonArray events = json.getJsonArray(EVENTS);
+        if (events == null) {
+            RevocationEvent event = of(json);
+            return event != null ? List.of(event) : List.of();
+        }
+
+        List<RevocationEvent> parsed = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            if (events.getValue(i) instanceof JsonObject event) {
+                RevocationEvent revocationEvent = of(event);
+                if (revocationEvent != null) {
+                    parsed.add(revocationEvent);
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private static RevocationEvent of(JsonObject json) {
+        Type type = json.getValue(TYPE) instanceof String name ? Type.of(name) : null;
+        Object value = json.getValue(VALUE);
+        return type != null && value instanceof String string && !string.isEmpty() ? new RevocationEvent(type, string) : null;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.revocation;
+
+import io.gravitee.gateway.api.handler.Handler;
+
+/**
+ * Source of revocation events, consumed by the resource to evict the cached results of revoked tokens before they expire.
+ *
+ * Sources are started when the resource starts and stopped when it stops. Besides the configured one, any bean implementing this
+ * interface in the context of the resource is used.
+ *
+ * @author GraviteeSource Team
+ */
+public interface RevocationSource {
+    /**
+     * Starts delivering the revocation events to the listener, the call must not block.
+     */
+    void start(Handler<RevocationEvent> listener);
+
+    void stop();
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.revocation;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Revocation events pushed to the gateway, by a webhook for instance.
+ *
+ * The sources are registered under a name while their resource is started: whatever receives the pushed events hands them to
+ * {@link #receiver(String)}, which dispatches them to all the resources listening to this name.
+ *
+ * @author GraviteeSource Team
+ */
+public class WebhookRevocationSource implements RevocationSource {
+
+    private static final Map<String, Set<WebhookRevocationSource>> SOURCES = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private volatile Handler<RevocationEvent> listener;
+
+    public WebhookRevocationSource(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the receiver dispatching the events pushed under the given name.
+     */
+    public static RevocationReceiver receiver(String name) {
+        return new RevocationReceiver() {
+            @Override
+            public void receive(RevocationEvent event) {
+                for (WebhookRevocationSource source : SOURCES.getOrDefault(name, Set.of())) {
+                    source.deliver(event);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void start(Handler<RevocationEvent> listener) {
+        this.listener = listener;
+        SOURCES.computeIfAbsent(name, n -> new CopyOnWriteArraySet<>()).add(this);
+    }
+
+    @Override
+    public void stop() {
+        SOURCES.computeIfPresent(
+            name,
+            (n, sources) -> {
+                sources.remove(this);
+                return sources.isEmpty() ? null : sources;
+            }
+        );
+        listener = null;
+    }
+
+    private void deliver(RevocationEvent event) {
+        Handler<RevocationEvent> current = listener;
+        if (current != null) {
+            current.handle(event);
+        }
+    }
+
+    /**
+     * Entry point of the pushed revocation events.
+     */
+    public interface RevocationReceiver {
+        void receive(RevocationEvent event);
+
+        /**
+         * Receives the events of a webhook payload, see {@link RevocationEvent#parse(Buffer)}.
+         *
+         * @return the number of received events.
+         * @throws DecodeException if the payload is not a JSON object.
+         */
+        default int receive(Buffer payload) {
+            List<RevocationEvent> events = RevocationEvent.parse(payload);
+            events.forEach(this::receive);
+            return events.size();
+        }
+    }
+}
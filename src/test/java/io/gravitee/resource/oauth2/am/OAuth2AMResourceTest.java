@@ -17,35 +17,75 @@ package io.gravitee.resource.oauth2.am;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.el.TemplateEngine;
 import io.gravitee.node.api.Node;
+import io.gravitee.node.api.cache.Cache;
+import io.gravitee.node.api.cache.CacheConfiguration;
+import io.gravitee.node.api.cache.CacheManager;
 import io.gravitee.plugin.configurations.http.HttpClientOptions;
 import io.gravitee.plugin.configurations.http.HttpProxyOptions;
+import io.gravitee.plugin.configurations.http.ProtocolVersion;
 import io.gravitee.plugin.configurations.ssl.SslOptions;
 import io.gravitee.resource.api.AbstractConfigurableResource;
+import io.gravitee.resource.oauth2.am.cache.IntrospectionCache;
+import io.gravitee.resource.oauth2.am.concurrent.Cancellation;
+import io.gravitee.resource.oauth2.am.configuration.EndpointOptions;
 import io.gravitee.resource.oauth2.am.configuration.OAuth2ResourceConfiguration;
+import io.gravitee.resource.oauth2.am.configuration.SharedCacheOptions;
+import io.gravitee.resource.oauth2.am.endpoint.EndpointGroup;
+import io.gravitee.resource.oauth2.am.http.RequestCancelledException;
+import io.gravitee.resource.oauth2.am.jwt.JwtTestSupport;
 import io.gravitee.resource.oauth2.api.OAuth2ResourceMetadata;
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.json.JsonObject;
 import io.vertx.rxjava3.core.Vertx;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
@@ -60,7 +100,10 @@ public class OAuth2AMResourceTest {
     private static TemplateEngine templateEngine;
 
     @RegisterExtension
-    static WireMockExtension wiremock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+    static WireMockExtension wiremock = WireMockExtension
+        .newInstance()
+        .options(wireMockConfig().dynamicPort().asynchronousResponseEnabled(true))
+        .build();
 
     @Mock
     private ApplicationContext applicationContext;
@@ -98,82 +141,1257 @@ public class OAuth2AMResourceTest {
         configurationField.set(resource, configuration);
     }
 
+    @AfterEach
+    public void tearDown() throws Exception {
+        // stops the health checks, revocation polls and connections which would otherwise outlive the test
+        resource.doStop();
+    }
+
+    @Test
+    public void shouldCallWithFormBody() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/check_token")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"value\"}"))
+        );
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        resource.doStart();
+        resource.introspect(accessToken, oAuth2Response -> lock.countDown());
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(
+            postRequestedFor(urlEqualTo("/domain/oauth/check_token"))
+                .withHeader(HttpHeaders.CONTENT_TYPE, equalTo(MediaType.APPLICATION_FORM_URLENCODED))
+                .withRequestBody(equalTo("token=" + accessToken))
+        );
+    }
+
+    @Test
+    public void shouldCallWithFormBody_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"value\"}"))
+        );
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        resource.introspect(accessToken, oAuth2Response -> lock.countDown());
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(
+            postRequestedFor(urlEqualTo("/domain/oauth/introspect"))
+                .withHeader(HttpHeaders.CONTENT_TYPE, equalTo(MediaType.APPLICATION_FORM_URLENCODED))
+                .withRequestBody(equalTo("token=" + accessToken))
+        );
+    }
+
+    @Test
+    public void shouldForwardGatewayRequestId() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/check_token")).willReturn(okJson("{\"active\": true}")));
+        wiremock.stubFor(get(urlEqualTo("/domain/userinfo")).willReturn(okJson("{\"sub\": \"user\"}")));
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(2);
+        CallOptions callOptions = CallOptions.builder().requestId("gateway-request-id").build();
+        resource.introspect(accessToken, callOptions, oAuth2Response -> lock.countDown());
+        resource.userInfo(accessToken, callOptions, userInfoResponse -> lock.countDown());
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(
+            postRequestedFor(urlEqualTo("/domain/oauth/check_token"))
+                .withHeader("X-Gravitee-Request-Id", equalTo("gateway-request-id"))
+                .withHeader(HttpHeaders.ACCEPT, equalTo(MediaType.APPLICATION_JSON))
+        );
+        wiremock.verify(
+            getRequestedFor(urlEqualTo("/domain/userinfo"))
+                .withHeader("X-Gravitee-Request-Id", equalTo("gateway-request-id"))
+                .withHeader(HttpHeaders.AUTHORIZATION, equalTo("Bearer " + accessToken))
+        );
+    }
+
+    @Test
+    public void shouldGenerateRequestIdWhenNoneIsForwarded() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/check_token")).willReturn(okJson("{\"active\": true}")));
+        wiremock.stubFor(get(urlEqualTo("/domain/userinfo")).willReturn(okJson("{\"sub\": \"user\"}")));
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(2);
+        resource.introspect(accessToken, oAuth2Response -> lock.countDown());
+        resource.userInfo(accessToken, userInfoResponse -> lock.countDown());
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(postRequestedFor(urlEqualTo("/domain/oauth/check_token")).withHeader("X-Gravitee-Request-Id", matching(".+")));
+        wiremock.verify(getRequestedFor(urlEqualTo("/domain/userinfo")).withHeader("X-Gravitee-Request-Id", matching(".+")));
+    }
+
+    @Test
+    public void shouldNotValidateAccessToken() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/check_token")).willReturn(aResponse().withStatus(401)));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        resource.doStart();
+
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getPayload()).isEqualTo("An error occurs while checking access token");
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldNotValidateAccessToken_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}"))
+        );
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldNotValidateAccessToken_v2_not_200() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(401)));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getPayload()).isEqualTo("An error occurs while checking access token");
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldIntrospectFromCache_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(
+                    aResponse()
+                        .withStatus(200)
+                        .withBody("{\"active\": true, \"exp\": " + (System.currentTimeMillis() / 1000 + 3600) + "}")
+                )
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+
+        resource.doStart();
+
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldPublishMetrics_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}")));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        resource.setMeterRegistry(registry);
+
+        resource.doStart();
+        introspect(accessToken);
+        introspect(accessToken);
+
+        Tags tags = Tags.of("security_domain", "domain", "am_version", "V2_X", "operation", "introspect");
+        assertThat(registry.get("oauth2.am.calls").tags(tags).timer().count()).isEqualTo(1);
+        assertThat(registry.get("oauth2.am.calls.outcome").tags(tags).tag("outcome", "active").counter().count()).isEqualTo(1);
+        assertThat(registry.get("oauth2.am.calls.in_flight").tags(tags).longTaskTimer().activeTasks()).isZero();
+        assertThat(registry.get("oauth2.am.pool.wait").tags(tags).timer().count()).isEqualTo(1);
+        assertThat(registry.get("oauth2.am.cache.requests").tags("cache", "introspection", "result", "hit").counter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("oauth2.am.cache.requests").tags("cache", "introspection", "result", "miss").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldHedgeSlowIntrospection_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .inScenario("slow")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(200).withFixedDelay(3000).withBody("{\"active\": true, \"sub\": \"slow\"}"))
+                .willSetStateTo("fast")
+        );
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .inScenario("slow")
+                .whenScenarioStateIs("fast")
+                .willReturn(okJson("{\"active\": true, \"sub\": \"fast\"}"))
+        );
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getHedgingOptions().setEnabled(true);
+        configuration.getHedgingOptions().setDelay(100);
+        configuration.getHedgingOptions().setBudget(100);
+        resource.setMeterRegistry(registry);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isTrue();
+                assertThat(oAuth2Response.getPayload()).contains("fast");
+                lock.countDown();
+            }
+        );
+        assertThat(lock.await(1500, TimeUnit.MILLISECONDS)).isTrue();
+
+        Tags tags = Tags.of("security_domain", "domain", "am_version", "V2_X", "operation", "introspect");
+        for (int i = 0; i < 100 && registry.find("oauth2.am.calls.outcome").tags(tags).tag("outcome", "cancelled").counter() == null; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(registry.get("oauth2.am.hedges").tags(tags).counter().count()).isEqualTo(1);
+        assertThat(registry.get("oauth2.am.calls.outcome").tags(tags).tag("outcome", "cancelled").counter().count()).isEqualTo(1);
+        assertThat(registry.get("oauth2.am.calls.outcome").tags(tags).tag("outcome", "transport_error").counter().count()).isZero();
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldRxIntrospect_v2() throws Exception {
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": false}")));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        OAuth2Response oAuth2Response = resource.rxIntrospect("xxxx-xxxx-xxxx-xxxx").blockingGet();
+        assertThat(oAuth2Response.isSuccess()).isFalse();
+        assertThat(oAuth2Response.getThrowable()).isNull();
+    }
+
+    @Test
+    public void shouldAbortIntrospectionWhenDisposed_v2() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}").withFixedDelay(3000))
+        );
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        resource.setMeterRegistry(registry);
+
+        resource.doStart();
+
+        TestObserver<OAuth2Response> observer = resource.rxIntrospect("xxxx-xxxx-xxxx-xxxx").test();
+        for (int i = 0; i < 100 && wiremock.findAll(postRequestedFor(urlEqualTo("/domain/oauth/introspect"))).isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        // resets the request which is waiting for the response of AM
+        observer.dispose();
+
+        Tags tags = Tags.of("security_domain", "domain", "am_version", "V2_X", "operation", "introspect");
+        Counter cancelled = registry.get("oauth2.am.calls.outcome").tags(tags).tag("outcome", "cancelled").counter();
+        for (int i = 0; i < 100 && cancelled.count() < 1; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(cancelled.count()).isEqualTo(1);
+        observer.assertNoValues().assertNoErrors();
+    }
+
+    @Test
+    public void shouldTerminateRxIntrospectionCancelledBeforeSubscription_v2() throws Exception {
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        Cancellation cancellation = new Cancellation();
+        cancellation.cancel();
+        TestObserver<OAuth2Response> observer = resource
+            .rxIntrospect("xxxx-xxxx-xxxx-xxxx", CallOptions.builder().cancellation(cancellation).build())
+            .test();
+
+        assertThat(observer.await(2, TimeUnit.SECONDS)).isTrue();
+        observer.assertError(RequestCancelledException.class).assertNoValues();
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldTerminateRxUserInfoCancelledInFlight() throws Exception {
+        wiremock.stubFor(get(urlEqualTo("/domain/oidc/userinfo")).willReturn(okJson("{\"sub\": \"user\"}").withFixedDelay(3000)));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        Cancellation cancellation = new Cancellation();
+        TestObserver<UserInfoResponse> observer = resource
+            .rxUserInfo("xxxx-xxxx-xxxx-xxxx", CallOptions.builder().cancellation(cancellation).build())
+            .test();
+        for (int i = 0; i < 100 && wiremock.findAll(getRequestedFor(urlEqualTo("/domain/oidc/userinfo"))).isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        cancellation.cancel();
+
+        // terminated at once, rather than once AM answers
+        assertThat(observer.await(1, TimeUnit.SECONDS)).isTrue();
+        observer.assertError(RequestCancelledException.class).assertNoValues();
+    }
+
+    @Test
+    public void shouldAbortUserInfoWhenTheCallerCancels() throws Exception {
+        wiremock.stubFor(get(urlEqualTo("/domain/oidc/userinfo")).willReturn(okJson("{\"sub\": \"user\"}").withFixedDelay(3000)));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        resource.setMeterRegistry(registry);
+
+        resource.doStart();
+
+        Cancellation cancellation = new Cancellation();
+        AtomicBoolean notified = new AtomicBoolean();
+        resource.userInfo("xxxx-xxxx-xxxx-xxxx", CallOptions.builder().cancellation(cancellation).build(), response -> notified.set(true));
+        for (int i = 0; i < 100 && wiremock.findAll(getRequestedFor(urlEqualTo("/domain/oidc/userinfo"))).isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        cancellation.cancel();
+
+        Tags tags = Tags.of("security_domain", "domain", "am_version", "V2_X", "operation", "userinfo");
+        Counter cancelled = registry.get("oauth2.am.calls.outcome").tags(tags).tag("outcome", "cancelled").counter();
+        for (int i = 0; i < 100 && cancelled.count() < 1; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(cancelled.count()).isEqualTo(1);
+        assertThat(notified).isFalse();
+    }
+
+    @Test
+    public void shouldWarmUpConnectionsAtStart() throws Exception {
+        wiremock.stubFor(get(urlEqualTo("/domain/oidc/.well-known/openid-configuration")).willReturn(okJson("{}")));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getWarmUpOptions().setEnabled(true);
+        configuration.getWarmUpOptions().setConnections(3);
+        configuration.getWarmUpOptions().setMaxWaitTime(5000);
+
+        resource.doStart();
+
+        wiremock.verify(exactly(3), getRequestedFor(urlEqualTo("/domain/oidc/.well-known/openid-configuration")));
+    }
+
+    @Test
+    public void shouldBoundWarmUpTime() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/.well-known/openid-configuration")).willReturn(okJson("{}").withFixedDelay(3000))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getWarmUpOptions().setEnabled(true);
+        configuration.getWarmUpOptions().setMaxWaitTime(200);
+
+        long start = System.nanoTime();
+        resource.doStart();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+    }
+
+    @Test
+    public void shouldNotCacheInactiveToken_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isFalse();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectInactiveTokenFromNegativeCache_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getNegativeCacheOptions().setEnabled(true);
+
+        resource.doStart();
+
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isFalse();
+                    assertThat(oAuth2Response.getPayload()).isEqualTo("{\"error\": \"Invalid Access Token\"}");
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotNegativelyCacheErrors_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(503)));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getNegativeCacheOptions().setEnabled(true);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isFalse();
+                    assertThat(oAuth2Response.getThrowable()).isNotNull();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldServeStaleIntrospectionOnError_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .inScenario("outage")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(okJson("{\"active\": true, \"exp\": " + (now() + 3600) + "}"))
+                .willSetStateTo("down")
+        );
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .inScenario("outage")
+                .whenScenarioStateIs("down")
+                .willReturn(aResponse().withStatus(503))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getIntrospectionCacheOptions().setMaxTimeToLive(1);
+        configuration.getIntrospectionCacheOptions().setStaleIfError(60);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            if (i > 0) {
+                // let the cached result become stale
+                Thread.sleep(1100);
+            }
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    assertThat(oAuth2Response.getPayload()).contains("\"active\": true");
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotServeStaleIntrospectionOnClientError_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .inScenario("refused")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(okJson("{\"active\": true, \"exp\": " + (now() + 3600) + "}"))
+                .willSetStateTo("refused")
+        );
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .inScenario("refused")
+                .whenScenarioStateIs("refused")
+                .willReturn(aResponse().withStatus(401))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getIntrospectionCacheOptions().setMaxTimeToLive(1);
+        configuration.getIntrospectionCacheOptions().setStaleIfError(60);
+
+        resource.doStart();
+
+        final CountDownLatch cached = new CountDownLatch(1);
+        resource.introspect(accessToken, oAuth2Response -> cached.countDown());
+        assertThat(cached.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        // let the cached result become stale
+        Thread.sleep(1100);
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        final AtomicReference<OAuth2Response> response = new AtomicReference<>();
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                response.set(oAuth2Response);
+                lock.countDown();
+            }
+        );
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(response.get().isSuccess()).isFalse();
+        assertThat(response.get().getThrowable()).isNotNull();
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectWhenSharedCacheDoesNotAnswer_v2() throws Exception {
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}")));
+
+        @SuppressWarnings("unchecked")
+        Cache<String, String> cache = mock(Cache.class);
+        when(cache.rxGet(anyString())).thenReturn(Maybe.never());
+        lenient().when(cache.rxPut(anyString(), anyString(), anyLong(), any())).thenReturn(Maybe.empty());
+        CacheManager cacheManager = mock(CacheManager.class);
+        doReturn(cache).when(cacheManager).getOrCreateCache(anyString(), any(CacheConfiguration.class));
+        when(applicationContext.getBean(CacheManager.class)).thenReturn(cacheManager);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getSharedCacheOptions().setEnabled(true);
+        configuration.getSharedCacheOptions().setLookupTimeout(200);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isTrue();
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(2000, TimeUnit.MILLISECONDS)).isTrue();
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldShareIntrospectionBetweenResources_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(okJson("{\"active\": true, \"exp\": " + (System.currentTimeMillis() / 1000 + 3600) + "}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getSharedCacheOptions().setEnabled(true);
+        configuration.getSharedCacheOptions().setType(SharedCacheOptions.Type.MEMORY);
+
+        OAuth2AMResource otherNode = new OAuth2AMResource();
+        otherNode.setDeploymentContext(new TestDeploymentContext(templateEngine));
+        otherNode.setApplicationContext(applicationContext);
+        Field configurationField = AbstractConfigurableResource.class.getDeclaredField("configuration");
+        configurationField.setAccessible(true);
+        configurationField.set(otherNode, configuration);
+
+        resource.doStart();
+        otherNode.doStart();
+        try {
+            introspect(accessToken);
+
+            final CountDownLatch lock = new CountDownLatch(1);
+            otherNode.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        } finally {
+            otherNode.doStop();
+            resource.doStop();
+        }
+
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldRestoreIntrospectionCacheAfterRestart_v2(@TempDir Path snapshotDirectory) throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(okJson("{\"active\": true, \"exp\": " + (System.currentTimeMillis() / 1000 + 3600) + "}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getCacheSnapshotOptions().setEnabled(true);
+        configuration.getCacheSnapshotOptions().setDirectory(snapshotDirectory.toString());
+
+        resource.doStart();
+        introspect(accessToken);
+        resource.doStop();
+
+        try (var files = Files.list(snapshotDirectory)) {
+            Path snapshot = files.findFirst().orElseThrow();
+            assertThat(Files.readString(snapshot, StandardCharsets.ISO_8859_1)).doesNotContain(accessToken).doesNotContain("active");
+        }
+
+        OAuth2AMResource restarted = new OAuth2AMResource();
+        restarted.setDeploymentContext(new TestDeploymentContext(templateEngine));
+        restarted.setApplicationContext(applicationContext);
+        Field configurationField = AbstractConfigurableResource.class.getDeclaredField("configuration");
+        configurationField.setAccessible(true);
+        configurationField.set(restarted, configuration);
+        resource = restarted;
+
+        resource.doStart();
+        Field cacheField = OAuth2AMResource.class.getDeclaredField("introspectionCache");
+        cacheField.setAccessible(true);
+        IntrospectionCache cache = (IntrospectionCache) cacheField.get(resource);
+        for (int i = 0; i < 100 && cache.size() == 0; i++) {
+            Thread.sleep(50);
+        }
+
+        introspect(accessToken);
+        resource.doStop();
+
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldEvictRevokedSubjectFromIntrospectionCache_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true, \"sub\": \"alice\"}")));
+        wiremock.stubFor(get(urlEqualTo("/revocations")).willReturn(okJson("{\"cursor\": \"1\", \"events\": []}")));
+        wiremock.stubFor(
+            get(urlEqualTo("/revocations?cursor=1"))
+                .willReturn(okJson("{\"cursor\": \"2\", \"events\": [{\"type\": \"subject\", \"value\": \"alice\"}]}"))
+        );
+        wiremock.stubFor(get(urlEqualTo("/revocations?cursor=2")).willReturn(okJson("{\"cursor\": \"2\", \"events\": []}")));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getRevocationOptions().setEnabled(true);
+        configuration.getRevocationOptions().setUrl("http://localhost:" + wiremock.getPort() + "/revocations");
+        configuration.getRevocationOptions().setPollInterval(200);
+
+        resource.doStart();
+        introspect(accessToken);
+        introspect(accessToken);
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+
+        for (int i = 0; i < 100 && wiremock.findAll(getRequestedFor(urlEqualTo("/revocations?cursor=2"))).isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+
+        introspect(accessToken);
+        resource.doStop();
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+        wiremock.verify(getRequestedFor(urlEqualTo("/revocations")).withHeader("Authorization", matching("Basic .*")));
+    }
+
+    @Test
+    public void shouldNotServeRevokedSubjectFromSharedCache_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true, \"sub\": \"alice\"}")));
+        wiremock.stubFor(get(urlEqualTo("/revocations")).willReturn(okJson("{\"cursor\": \"1\", \"events\": []}")));
+        wiremock.stubFor(
+            get(urlEqualTo("/revocations?cursor=1"))
+                .willReturn(okJson("{\"cursor\": \"2\", \"events\": [{\"type\": \"subject\", \"value\": \"alice\"}]}"))
+        );
+        wiremock.stubFor(get(urlEqualTo("/revocations?cursor=2")).willReturn(okJson("{\"cursor\": \"2\", \"events\": []}")));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getSharedCacheOptions().setEnabled(true);
+        configuration.getSharedCacheOptions().setType(SharedCacheOptions.Type.MEMORY);
+        configuration.getSharedCacheOptions().setName("revocation");
+        configuration.getRevocationOptions().setEnabled(true);
+        configuration.getRevocationOptions().setUrl("http://localhost:" + wiremock.getPort() + "/revocations");
+        configuration.getRevocationOptions().setPollInterval(200);
+
+        resource.doStart();
+        introspect(accessToken);
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+
+        for (int i = 0; i < 100 && wiremock.findAll(getRequestedFor(urlEqualTo("/revocations?cursor=2"))).isEmpty(); i++) {
+            Thread.sleep(50);
+        }
+
+        // the local entry is evicted, the shared one is still there but must not be served
+        introspect(accessToken);
+        resource.doStop();
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldRefreshAheadHotIntrospection_v2() throws Exception {
+        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}")));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionCacheOptions().setEnabled(true);
+        configuration.getIntrospectionCacheOptions().setMaxTimeToLive(2);
+        configuration.getIntrospectionCacheOptions().setRefreshAheadThreshold(50);
+        configuration.getIntrospectionCacheOptions().setRefreshAheadMinHits(1);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            if (i > 0) {
+                // pass the refresh point of the cached result
+                Thread.sleep(1100);
+            }
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        // the second introspection is served from the cache and refreshes it in the background
+        long deadline = System.currentTimeMillis() + 10000;
+        while (wiremock.getAllServeEvents().size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldTimeoutIntrospection_v2() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(5000).withBody("{\"active\": true}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getIntrospectionTimeoutOptions().setTimeout(300);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getThrowable()).isInstanceOf(TimeoutException.class);
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(2000, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
     @Test
-    public void shouldCallWithFormBody() throws Exception {
-        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+    public void shouldRejectIntrospectionOverConcurrencyLimit_v2() throws Exception {
         wiremock.stubFor(
-            post(urlEqualTo("/domain/oauth/check_token")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"value\"}"))
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(1000).withBody("{\"active\": true}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getConcurrencyLimitOptions().setEnabled(true);
+        configuration.getConcurrencyLimitOptions().setInitialLimit(1);
+        configuration.getConcurrencyLimitOptions().setMinLimit(1);
+
+        resource.doStart();
+
+        final CountDownLatch pending = new CountDownLatch(1);
+        resource.introspect("xxxx-xxxx-xxxx-xxxx", oAuth2Response -> pending.countDown());
+
+        final CountDownLatch rejected = new CountDownLatch(1);
+        resource.introspect(
+            "yyyy-yyyy-yyyy-yyyy",
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getThrowable()).hasMessageContaining("concurrency limit");
+                rejected.countDown();
+            }
+        );
+
+        assertThat(rejected.await(100, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(pending.await(5000, TimeUnit.MILLISECONDS)).isTrue();
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotReduceConcurrencyLimitOnRefusedTokens_v2() throws Exception {
+        wiremock.stubFor(get(urlEqualTo("/domain/oidc/userinfo")).willReturn(aResponse().withStatus(401)));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getConcurrencyLimitOptions().setEnabled(true);
+        configuration.getConcurrencyLimitOptions().setInitialLimit(10);
+        configuration.getConcurrencyLimitOptions().setMinLimit(1);
+        resource.setMeterRegistry(registry);
+
+        resource.doStart();
+
+        for (int i = 0; i < 10; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            final AtomicReference<UserInfoResponse> response = new AtomicReference<>();
+            resource.userInfo(
+                "xxxx-xxxx-xxxx-xxxx",
+                userInfoResponse -> {
+                    response.set(userInfoResponse);
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(2000, TimeUnit.MILLISECONDS)).isTrue();
+            assertThat(response.get().isSuccess()).isFalse();
+        }
+
+        assertThat(registry.get("oauth2.am.concurrency.limit").gauge().value()).isEqualTo(10);
+        wiremock.verify(exactly(10), getRequestedFor(urlEqualTo("/domain/oidc/userinfo")));
+    }
+
+    @Test
+    public void shouldTimeoutWhileWaitingForConnection_v2() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/userinfo"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(3000).withBody("{\"sub\": \"user\"}"))
         );
 
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getHttpClientOptions().setMaxConcurrentConnections(1);
+        configuration.getIntrospectionTimeoutOptions().setTimeout(300);
+
+        resource.doStart();
+
+        // the only connection is held by the userinfo call for 3 seconds
+        final CountDownLatch pending = new CountDownLatch(1);
+        resource.userInfo("xxxx-xxxx-xxxx-xxxx", userInfoResponse -> pending.countDown());
+
         final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getThrowable()).isInstanceOf(TimeoutException.class);
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(1500, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(pending.await(5000, TimeUnit.MILLISECONDS)).isTrue();
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotOutliveCallerTimeBudget_v2() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(5000).withBody("{\"active\": true}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
 
         resource.doStart();
-        resource.introspect(accessToken, oAuth2Response -> lock.countDown());
 
-        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            CallOptions.builder().timeout(300).build(),
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getThrowable()).isInstanceOf(TimeoutException.class);
+                lock.countDown();
+            }
+        );
 
-        wiremock.verify(
-            postRequestedFor(urlEqualTo("/domain/oauth/check_token"))
-                .withHeader(HttpHeaders.CONTENT_TYPE, equalTo(MediaType.APPLICATION_FORM_URLENCODED))
-                .withRequestBody(equalTo("token=" + accessToken))
+        assertThat(lock.await(2000, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldTimeoutUserInfoWhileReadingBody_v2() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/userinfo"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"sub\": \"248289761001\"}").withChunkedDribbleDelay(5, 5000))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getUserInfoTimeoutOptions().setTimeout(500);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.userInfo(
+            "xxxx-xxxx-xxxx-xxxx",
+            userInfoResponse -> {
+                assertThat(userInfoResponse.isSuccess()).isFalse();
+                assertThat(userInfoResponse.getThrowable()).isNotNull();
+                lock.countDown();
+            }
         );
+
+        assertThat(lock.await(2000, TimeUnit.MILLISECONDS)).isTrue();
     }
 
     @Test
-    public void shouldCallWithFormBody_v2() throws Exception {
+    public void shouldPreferLocalZoneAndFailoverOnUnhealthyEndpoint_v2() throws Exception {
+        wiremock.stubFor(post(urlEqualTo("/eu/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}")));
+        wiremock.stubFor(post(urlEqualTo("/us/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}")));
+        wiremock.stubFor(get(urlEqualTo("/eu/domain/oidc/.well-known/openid-configuration")).willReturn(aResponse().withStatus(503)));
+        wiremock.stubFor(get(urlEqualTo("/us/domain/oidc/.well-known/openid-configuration")).willReturn(okJson("{}")));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.setEndpoints(
+            List.of(
+                new EndpointOptions("http://localhost:" + wiremock.getPort() + "/eu", "eu-west"),
+                new EndpointOptions("http://localhost:" + wiremock.getPort() + "/us", "us-east")
+            )
+        );
+        configuration.getLoadBalancingOptions().setZone("eu-west");
+        configuration.getHealthCheckOptions().setEnabled(true);
+        configuration.getHealthCheckOptions().setInterval(1);
+        configuration.getHealthCheckOptions().setUnhealthyThreshold(1);
+
+        resource.doStart();
+
+        introspect("xxxx-xxxx-xxxx-1");
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/eu/domain/oauth/introspect")));
+
+        // wait for the local endpoint to be ejected
+        long deadline = System.currentTimeMillis() + 10000;
+        while (
+            wiremock.findAll(getRequestedFor(urlEqualTo("/eu/domain/oidc/.well-known/openid-configuration"))).isEmpty() &&
+            System.currentTimeMillis() < deadline
+        ) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(200);
+
+        introspect("xxxx-xxxx-xxxx-2");
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/us/domain/oauth/introspect")));
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/eu/domain/oauth/introspect")));
+    }
+
+    private void introspect(String accessToken) throws InterruptedException {
+        final CountDownLatch lock = new CountDownLatch(1);
+        final AtomicReference<OAuth2Response> response = new AtomicReference<>();
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                response.set(oAuth2Response);
+                lock.countDown();
+            }
+        );
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(response.get().getThrowable()).isNull();
+        assertThat(response.get().isSuccess()).isTrue();
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentIntrospections_v2() throws Exception {
         String accessToken = "xxxx-xxxx-xxxx-xxxx";
         wiremock.stubFor(
-            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"value\"}"))
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(500).withBody("{\"active\": true}"))
         );
 
-        final CountDownLatch lock = new CountDownLatch(1);
+        final CountDownLatch lock = new CountDownLatch(10);
 
         configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
 
         resource.doStart();
 
-        resource.introspect(accessToken, oAuth2Response -> lock.countDown());
+        for (int i = 0; i < 10; i++) {
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+        }
 
         assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
 
-        wiremock.verify(
-            postRequestedFor(urlEqualTo("/domain/oauth/introspect"))
-                .withHeader(HttpHeaders.CONTENT_TYPE, equalTo(MediaType.APPLICATION_FORM_URLENCODED))
-                .withRequestBody(equalTo("token=" + accessToken))
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentUserInfo_v2() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/userinfo"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(500).withBody("{\"sub\": \"248289761001\"}"))
+        );
+
+        final CountDownLatch lock = new CountDownLatch(10);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+
+        resource.doStart();
+
+        for (int i = 0; i < 10; i++) {
+            resource.userInfo(
+                "xxxx-xxxx-xxxx-xxxx",
+                userInfoResponse -> {
+                    assertThat(userInfoResponse.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+        }
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(1), getRequestedFor(urlEqualTo("/domain/oidc/userinfo")));
+    }
+
+    @Test
+    public void shouldMultiplexIntrospectionsOverH2c_v2() throws Exception {
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(200).withBody("{\"active\": true}"))
         );
+
+        final CountDownLatch lock = new CountDownLatch(20);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getHttpClientOptions().setVersion(ProtocolVersion.HTTP_2);
+        configuration.getHttpClientOptions().setClearTextUpgrade(false);
+        configuration.getHttpClientOptions().setHttp2MultiplexingLimit(10);
+        configuration.getHttpClientOptions().setMaxConcurrentConnections(20);
+        configuration.getHttp2Options().setMaxConnections(2);
+
+        resource.doStart();
+
+        for (int i = 0; i < 20; i++) {
+            resource.introspect(
+                "xxxx-xxxx-xxxx-" + i,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+        }
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(20), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+        assertThat(wiremock.getAllServeEvents()).allSatisfy(event -> assertThat(event.getRequest().getProtocol()).isEqualTo("HTTP/2.0"));
     }
 
     @Test
-    public void shouldNotValidateAccessToken() throws Exception {
-        String accessToken = "xxxx-xxxx-xxxx-xxxx";
-        wiremock.stubFor(post(urlEqualTo("/domain/oauth/check_token")).willReturn(aResponse().withStatus(401)));
+    public void shouldApplyHttp2PoolSizeToTheClient_v2() throws Exception {
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getHttpClientOptions().setVersion(ProtocolVersion.HTTP_2);
+        configuration.getHttpClientOptions().setMaxConcurrentConnections(20);
+        configuration.getHttp2Options().setMaxConnections(2);
+
+        resource.doStart();
+
+        Field endpointGroupField = OAuth2AMResource.class.getDeclaredField("endpointGroup");
+        endpointGroupField.setAccessible(true);
+        EndpointGroup endpointGroup = (EndpointGroup) endpointGroupField.get(resource);
+        io.vertx.core.http.HttpClient httpClient = endpointGroup.getEndpoints().get(0).getHttpClient();
+
+        // the pool the client actually uses, not only the configuration
+        Field poolOptionsField = httpClient.getClass().getDeclaredField("poolOptions");
+        poolOptionsField.setAccessible(true);
+        PoolOptions poolOptions = (PoolOptions) poolOptionsField.get(httpClient);
+        assertThat(poolOptions.getHttp2MaxSize()).isEqualTo(2);
+        assertThat(poolOptions.getHttp1MaxSize()).isEqualTo(20);
+    }
+
+    @Test
+    public void shouldFailFastWhenCircuitIsOpen_v2() throws Exception {
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(503)));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getCircuitBreakerOptions().setEnabled(true);
+        configuration.getCircuitBreakerOptions().setSlidingWindowSize(2);
+        configuration.getCircuitBreakerOptions().setMinimumNumberOfCalls(2);
+
+        resource.doStart();
+
+        for (int i = 0; i < 4; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-" + i,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isFalse();
+                    assertThat(oAuth2Response.getThrowable()).isNotNull();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.userInfo(
+            "xxxx-xxxx-xxxx-xxxx",
+            userInfoResponse -> {
+                assertThat(userInfoResponse.isSuccess()).isFalse();
+                assertThat(userInfoResponse.getThrowable()).hasMessageContaining("circuit breaker is open");
+                lock.countDown();
+            }
+        );
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+        wiremock.verify(exactly(0), getRequestedFor(urlEqualTo("/domain/oidc/userinfo")));
+    }
+
+    @Test
+    public void shouldValidateJwtLocally_v2() throws Exception {
+        KeyPair keyPair = JwtTestSupport.rsaKeyPair();
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/.well-known/jwks.json")).willReturn(okJson(JwtTestSupport.rsaJwks("key", keyPair).encode()))
+        );
+        String issuer = "http://localhost:" + wiremock.getPort() + "/domain/oidc";
+        // typed as AM types its access tokens
+        String accessToken = JwtTestSupport.sign("RS256", "key", "JWT", keyPair.getPrivate(), JwtTestSupport.claims(issuer, now() + 3600));
 
         final CountDownLatch lock = new CountDownLatch(1);
 
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getLocalValidationOptions().setEnabled(true);
+
         resource.doStart();
 
         resource.introspect(
             accessToken,
+            oAuth2Response -> {
+                assertThat(oAuth2Response.isSuccess()).isTrue();
+                JsonObject payload = new JsonObject(oAuth2Response.getPayload());
+                assertThat(payload.getBoolean("active")).isTrue();
+                assertThat(payload.getString("client_id")).isEqualTo("my-client");
+                assertThat(payload.getString("sub")).isEqualTo("248289761001");
+                lock.countDown();
+            }
+        );
+
+        assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectIdTokenRatherThanValidateItLocally_v2() throws Exception {
+        KeyPair keyPair = JwtTestSupport.rsaKeyPair();
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/.well-known/jwks.json")).willReturn(okJson(JwtTestSupport.rsaJwks("key", keyPair).encode()))
+        );
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": false}")));
+        String issuer = "http://localhost:" + wiremock.getPort() + "/domain/oidc";
+        String idToken = JwtTestSupport.signIdToken("RS256", "key", keyPair.getPrivate(), JwtTestSupport.claims(issuer, now() + 3600));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getLocalValidationOptions().setEnabled(true);
+        configuration.getLocalValidationOptions().setTokenType("at+jwt");
+
+        resource.doStart();
+
+        resource.introspect(
+            idToken,
             oAuth2Response -> {
                 assertThat(oAuth2Response.isSuccess()).isFalse();
-                assertThat(oAuth2Response.getPayload()).isEqualTo("An error occurs while checking access token");
                 lock.countDown();
             }
         );
 
         assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
     }
 
     @Test
-    public void shouldNotValidateAccessToken_v2() throws Exception {
-        String accessToken = "xxxx-xxxx-xxxx-xxxx";
+    public void shouldRejectExpiredJwtLocally_v2() throws Exception {
+        KeyPair keyPair = JwtTestSupport.rsaKeyPair();
         wiremock.stubFor(
-            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}"))
+            get(urlEqualTo("/domain/oidc/.well-known/jwks.json")).willReturn(okJson(JwtTestSupport.rsaJwks("key", keyPair).encode()))
         );
+        String issuer = "http://localhost:" + wiremock.getPort() + "/domain/oidc";
+        String accessToken = JwtTestSupport.sign("RS256", "key", keyPair.getPrivate(), JwtTestSupport.claims(issuer, now() - 60));
 
         final CountDownLatch lock = new CountDownLatch(1);
 
         configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getLocalValidationOptions().setEnabled(true);
 
         resource.doStart();
 
@@ -181,34 +1399,160 @@ public class OAuth2AMResourceTest {
             accessToken,
             oAuth2Response -> {
                 assertThat(oAuth2Response.isSuccess()).isFalse();
+                assertThat(oAuth2Response.getPayload()).isEqualTo("{\"error\": \"Invalid Access Token\"}");
                 lock.countDown();
             }
         );
 
         assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
     }
 
     @Test
-    public void shouldNotValidateAccessToken_v2_not_200() throws Exception {
+    public void shouldIntrospectJwtFromAnotherIssuerWithoutNegativeCaching_v2() throws Exception {
+        KeyPair keyPair = JwtTestSupport.rsaKeyPair();
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/.well-known/jwks.json")).willReturn(okJson(JwtTestSupport.rsaJwks("key", keyPair).encode()))
+        );
+        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(okJson("{\"active\": true}")));
+        String issuer = "http://localhost:" + wiremock.getPort() + "/other/oidc";
+        String accessToken = JwtTestSupport.sign("RS256", "key", "JWT", keyPair.getPrivate(), JwtTestSupport.claims(issuer, now() + 3600));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getLocalValidationOptions().setEnabled(true);
+        configuration.getNegativeCacheOptions().setEnabled(true);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(2), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldRefreshJwksOnUnknownKeyId_v2() throws Exception {
+        KeyPair previousKeyPair = JwtTestSupport.rsaKeyPair();
+        KeyPair rotatedKeyPair = JwtTestSupport.rsaKeyPair();
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/.well-known/jwks.json"))
+                .inScenario("rotation")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(okJson(JwtTestSupport.rsaJwks("previous", previousKeyPair).encode()))
+                .willSetStateTo("rotated")
+        );
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/.well-known/jwks.json"))
+                .inScenario("rotation")
+                .whenScenarioStateIs("rotated")
+                .willReturn(okJson(JwtTestSupport.rsaJwks("rotated", rotatedKeyPair).encode()))
+        );
+        String issuer = "http://localhost:" + wiremock.getPort() + "/domain/oidc";
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getLocalValidationOptions().setEnabled(true);
+        configuration.getLocalValidationOptions().setJwksMinRefreshInterval(0);
+
+        resource.doStart();
+
+        for (String kid : List.of("previous", "rotated")) {
+            KeyPair keyPair = "previous".equals(kid) ? previousKeyPair : rotatedKeyPair;
+            String accessToken = JwtTestSupport.sign("RS256", kid, keyPair.getPrivate(), JwtTestSupport.claims(issuer, now() + 3600));
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    assertThat(oAuth2Response.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(2), getRequestedFor(urlEqualTo("/domain/oidc/.well-known/jwks.json")));
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldFetchJwksFromHealthyEndpoint_v2() throws Exception {
+        KeyPair keyPair = JwtTestSupport.rsaKeyPair();
+        wiremock.stubFor(get(urlEqualTo("/eu/domain/oidc/.well-known/openid-configuration")).willReturn(aResponse().withStatus(503)));
+        wiremock.stubFor(get(urlEqualTo("/us/domain/oidc/.well-known/openid-configuration")).willReturn(okJson("{}")));
+        wiremock.stubFor(
+            get(urlEqualTo("/us/domain/oidc/.well-known/jwks.json")).willReturn(okJson(JwtTestSupport.rsaJwks("key", keyPair).encode()))
+        );
+        String issuer = "https://am.example.com/domain/oidc";
+        String accessToken = JwtTestSupport.sign("RS256", "key", "JWT", keyPair.getPrivate(), JwtTestSupport.claims(issuer, now() + 3600));
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.setEndpoints(
+            List.of(
+                new EndpointOptions("http://localhost:" + wiremock.getPort() + "/eu", "eu-west"),
+                new EndpointOptions("http://localhost:" + wiremock.getPort() + "/us", "us-east")
+            )
+        );
+        configuration.getLoadBalancingOptions().setZone("eu-west");
+        configuration.getHealthCheckOptions().setEnabled(true);
+        configuration.getHealthCheckOptions().setInterval(1);
+        configuration.getHealthCheckOptions().setUnhealthyThreshold(1);
+        configuration.getLocalValidationOptions().setEnabled(true);
+        configuration.getLocalValidationOptions().setIssuer(issuer);
+
+        resource.doStart();
+
+        // wait for the first endpoint to be ejected
+        long deadline = System.currentTimeMillis() + 10000;
+        while (
+            wiremock.findAll(getRequestedFor(urlEqualTo("/eu/domain/oidc/.well-known/openid-configuration"))).isEmpty() &&
+            System.currentTimeMillis() < deadline
+        ) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(200);
+
+        introspect(accessToken);
+        wiremock.verify(exactly(1), getRequestedFor(urlEqualTo("/us/domain/oidc/.well-known/jwks.json")));
+        wiremock.verify(exactly(0), getRequestedFor(urlEqualTo("/eu/domain/oidc/.well-known/jwks.json")));
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/eu/domain/oauth/introspect")));
+        wiremock.verify(exactly(0), postRequestedFor(urlEqualTo("/us/domain/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectOpaqueTokenWhenLocalValidationIsEnabled_v2() throws Exception {
         String accessToken = "xxxx-xxxx-xxxx-xxxx";
-        wiremock.stubFor(post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(401)));
+        wiremock.stubFor(
+            post(urlEqualTo("/domain/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}"))
+        );
 
         final CountDownLatch lock = new CountDownLatch(1);
 
         configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getLocalValidationOptions().setEnabled(true);
 
         resource.doStart();
 
         resource.introspect(
             accessToken,
             oAuth2Response -> {
-                assertThat(oAuth2Response.isSuccess()).isFalse();
-                assertThat(oAuth2Response.getPayload()).isEqualTo("An error occurs while checking access token");
+                assertThat(oAuth2Response.isSuccess()).isTrue();
                 lock.countDown();
             }
         );
 
         assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+
+        wiremock.verify(exactly(1), postRequestedFor(urlEqualTo("/domain/oauth/introspect")));
+        wiremock.verify(exactly(0), getRequestedFor(urlEqualTo("/domain/oidc/.well-known/jwks.json")));
     }
 
     @Test
@@ -261,6 +1605,33 @@ public class OAuth2AMResourceTest {
         assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
     }
 
+    @Test
+    public void shouldGetUserInfoFromCache_v2() throws Exception {
+        wiremock.stubFor(
+            get(urlEqualTo("/domain/oidc/userinfo"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"sub\": \"248289761001\", \"name\": \"Jane Doe\"}"))
+        );
+
+        configuration.setVersion(OAuth2ResourceConfiguration.Version.V2_X);
+        configuration.getUserInfoCacheOptions().setEnabled(true);
+
+        resource.doStart();
+
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.userInfo(
+                "xxxx-xxxx-xxxx-xxxx",
+                userInfoResponse -> {
+                    assertThat(userInfoResponse.isSuccess()).isTrue();
+                    lock.countDown();
+                }
+            );
+            assertThat(lock.await(10000, TimeUnit.MILLISECONDS)).isTrue();
+        }
+
+        wiremock.verify(exactly(1), getRequestedFor(urlEqualTo("/domain/oidc/userinfo")));
+    }
+
     @Test
     public void shouldNotGetUserInfo() throws Exception {
         wiremock.stubFor(get(urlEqualTo("/domain/userinfo")).willReturn(aResponse().withStatus(401)));
@@ -345,6 +1716,10 @@ public class OAuth2AMResourceTest {
         assertThat(resourceMetadata.scopesSupported()).containsExactly("openid", "profile", "email");
     }
 
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
     private void testGetProtectedResourceMetadata(String serverUrl, String securityDomain)
         throws NoSuchFieldException, IllegalAccessException {
         OAuth2AMResource resource = new OAuth2AMResource();
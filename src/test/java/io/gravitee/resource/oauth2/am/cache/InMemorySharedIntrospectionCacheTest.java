@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemorySharedIntrospectionCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    public void shouldExpireAtTimeToLive() {
+        InMemorySharedIntrospectionCache cache = new InMemorySharedIntrospectionCache("test", 100, nanos::get);
+        cache.put("key", "{\"active\": true}", TimeUnit.SECONDS.toMillis(10));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertThat(get(cache, "key")).isEqualTo("{\"active\": true}");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(get(cache, "key")).isNull();
+    }
+
+    @Test
+    public void shouldNotCacheExpiredEntry() {
+        InMemorySharedIntrospectionCache cache = new InMemorySharedIntrospectionCache("test", 100, nanos::get);
+        cache.put("key", "{\"active\": true}", 0);
+
+        assertThat(get(cache, "key")).isNull();
+    }
+
+    @Test
+    public void shouldShareTheCacheUntilTheLastReferenceIsClosed() {
+        InMemorySharedIntrospectionCache first = InMemorySharedIntrospectionCache.acquire("shared-test", 100);
+        InMemorySharedIntrospectionCache second = InMemorySharedIntrospectionCache.acquire("shared-test", 100);
+        assertThat(second).isSameAs(first);
+
+        first.put("key", "{\"active\": true}", TimeUnit.SECONDS.toMillis(10));
+        first.close();
+        assertThat(get(second, "key")).isEqualTo("{\"active\": true}");
+
+        second.close();
+        assertThat(second.size()).isZero();
+
+        InMemorySharedIntrospectionCache third = InMemorySharedIntrospectionCache.acquire("shared-test", 100);
+        assertThat(third).isNotSameAs(first);
+        third.close();
+    }
+
+    private static String get(SharedIntrospectionCache cache, String key) {
+        AtomicReference<String> payload = new AtomicReference<>();
+        cache.get(key, payload::set);
+        return payload.get();
+    }
+}
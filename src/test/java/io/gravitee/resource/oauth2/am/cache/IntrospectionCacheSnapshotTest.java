@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class IntrospectionCacheSnapshotTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static final byte[] KEY = new byte[32];
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+
+    private final SipHash keyHash = new SipHash(new byte[16]);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void shouldRestoreUnexpiredEntries() throws IOException {
+        IntrospectionCache cache = cache(0);
+        cache.put("long-lived", new OAuth2Response(true, "{\"active\": true, \"sub\": \"jérôme\"}"), null);
+        cache.put("short-lived", new OAuth2Response(true, "{\"active\": true}"), TimeUnit.MILLISECONDS.toSeconds(NOW) + 10);
+
+        IntrospectionCacheSnapshot snapshot = new IntrospectionCacheSnapshot(directory.resolve("cache.snapshot"), KEY);
+        assertThat(snapshot.save(cache)).isEqualTo(2);
+        assertThat(Files.readString(snapshot.file(), StandardCharsets.ISO_8859_1)).doesNotContain("active").doesNotContain("long-lived");
+
+        // restarted 20 seconds later
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(20));
+        nanos.set(TimeUnit.DAYS.toNanos(1));
+        IntrospectionCache restored = cache(0);
+        assertThat(snapshot.load(restored, 1000)).isEqualTo(1);
+
+        assertThat(restored.get("long-lived").getPayload()).isEqualTo("{\"active\": true, \"sub\": \"jérôme\"}");
+        assertThat(restored.get("short-lived")).isNull();
+
+        // the remaining time to live is kept
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(39));
+        assertThat(restored.get("long-lived")).isNotNull();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(restored.get("long-lived")).isNull();
+    }
+
+    @Test
+    public void shouldInvalidateRestoredEntriesByTokenHash() throws Exception {
+        TokenHasher hasher = new TokenHasher("secret");
+        IntrospectionCache cache = cache(0);
+        cache.indexClaims(hasher);
+        cache.put("token", new OAuth2Response(true, "{\"active\": true, \"sub\": \"alice\"}"), null);
+
+        IntrospectionCacheSnapshot snapshot = new IntrospectionCacheSnapshot(directory.resolve("cache.snapshot"), KEY);
+        snapshot.save(cache);
+
+        IntrospectionCache restored = cache(0);
+        restored.indexClaims(hasher);
+        assertThat(snapshot.load(restored, 1000)).isEqualTo(1);
+
+        byte[] sha256 = MessageDigest.getInstance("SHA-256").digest("token".getBytes(StandardCharsets.UTF_8));
+        assertThat(restored.invalidateByTokenHash(sha256)).isTrue();
+        assertThat(restored.get("token")).isNull();
+    }
+
+    @Test
+    public void shouldRestoreStaleEntries() throws IOException {
+        IntrospectionCache cache = cache(60);
+        cache.put("token", new OAuth2Response(true, "{\"active\": true}"), null);
+
+        IntrospectionCacheSnapshot snapshot = new IntrospectionCacheSnapshot(directory.resolve("cache.snapshot"), KEY);
+        snapshot.save(cache);
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(90));
+        IntrospectionCache restored = cache(60);
+        assertThat(snapshot.load(restored, 1000)).isEqualTo(1);
+        assertThat(restored.get("token")).isNull();
+        assertThat(restored.getStale("token")).isNotNull();
+    }
+
+    @Test
+    public void shouldBoundTheNumberOfRestoredEntries() throws IOException {
+        IntrospectionCache cache = new IntrospectionCache(1_000, 60, 0, nanos::get, clock::get, null, keyHash);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, new OAuth2Response(true, "{\"active\": true}"), null);
+        }
+
+        IntrospectionCacheSnapshot snapshot = new IntrospectionCacheSnapshot(directory.resolve("cache.snapshot"), KEY);
+        snapshot.save(cache);
+
+        assertThat(snapshot.load(cache(0), 1000)).isEqualTo(100);
+        assertThat(snapshot.load(cache(0), 0)).isZero();
+    }
+
+    @Test
+    public void shouldSkipRestoreWhenSnapshotIsNotReadWithinMaxLoadTime() throws IOException {
+        IntrospectionCache cache = cache(0);
+        cache.put("token", new OAuth2Response(true, "{\"active\": true}"), null);
+        new IntrospectionCacheSnapshot(directory.resolve("cache.snapshot"), KEY).save(cache);
+
+        // the deadline is exceeded as soon as the file is being read, before the entries are decrypted
+        AtomicLong readNanos = new AtomicLong();
+        IntrospectionCacheSnapshot snapshot = new IntrospectionCacheSnapshot(
+            directory.resolve("cache.snapshot"),
+            KEY,
+            () -> readNanos.getAndAdd(TimeUnit.MINUTES.toNanos(1))
+        );
+        IntrospectionCache restored = cache(0);
+        assertThat(snapshot.load(restored, 1000)).isZero();
+        assertThat(restored.size()).isZero();
+    }
+
+    @Test
+    public void shouldIgnoreMissingSnapshot() throws IOException {
+        assertThat(new IntrospectionCacheSnapshot(directory.resolve("missing.snapshot"), KEY).load(cache(0), 1000)).isZero();
+    }
+
+    @Test
+    public void shouldRejectTamperedSnapshot() throws IOException {
+        IntrospectionCache cache = cache(0);
+        cache.put("token", new OAuth2Response(true, "{\"active\": true}"), null);
+        IntrospectionCacheSnapshot snapshot = new IntrospectionCacheSnapshot(directory.resolve("cache.snapshot"), KEY);
+        snapshot.save(cache);
+
+        byte[] otherKey = Arrays.copyOf(KEY, KEY.length);
+        otherKey[0] = 1;
+        assertThatThrownBy(() -> new IntrospectionCacheSnapshot(snapshot.file(), otherKey).load(cache(0), 1000))
+            .isInstanceOf(IOException.class);
+
+        byte[] content = Files.readAllBytes(snapshot.file());
+        content[content.length - 1] ^= 1;
+        Files.write(snapshot.file(), content);
+        IntrospectionCache restored = cache(0);
+        assertThatThrownBy(() -> snapshot.load(restored, 1000)).isInstanceOf(IOException.class);
+        assertThat(restored.size()).isZero();
+    }
+
+    private IntrospectionCache cache(long staleIfError) {
+        return new IntrospectionCache(100, 60, staleIfError, nanos::get, clock::get, null, keyHash);
+    }
+}
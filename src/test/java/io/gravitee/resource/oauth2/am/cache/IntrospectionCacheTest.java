@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class IntrospectionCacheTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private IntrospectionCache cache;
+
+    @BeforeEach
+    public void init() {
+        cache = cache(0);
+    }
+
+    @Test
+    public void shouldExpireAtMaxTimeToLive() {
+        OAuth2Response response = new OAuth2Response(true, "{\"active\": true}");
+        cache.put("token", response, null);
+
+        assertThat(cache.get("token")).isSameAs(response);
+
+        advance(59);
+        assertThat(cache.get("token")).isSameAs(response);
+
+        advance(2);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    public void shouldExpireAtTokenExpiration() {
+        OAuth2Response response = new OAuth2Response(true, "{\"active\": true}");
+        cache.put("token", response, TimeUnit.MILLISECONDS.toSeconds(NOW) + 10);
+
+        advance(9);
+        assertThat(cache.get("token")).isSameAs(response);
+
+        advance(2);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    public void shouldNotCacheExpiredToken() {
+        cache.put("token", new OAuth2Response(true, "{\"active\": true}"), TimeUnit.MILLISECONDS.toSeconds(NOW) - 1);
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    public void shouldBoundTheNumberOfEntries() {
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, new OAuth2Response(true, "{\"active\": true}"), null);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void shouldServeStaleEntryWithinGracePeriod() {
+        cache = cache(30);
+        OAuth2Response response = new OAuth2Response(true, "{\"active\": true}");
+        cache.put("token", response, null);
+
+        advance(61);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.getStale("token")).isSameAs(response);
+
+        advance(30);
+        assertThat(cache.getStale("token")).isNull();
+        assertThat(cache.staleHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotServeStaleEntryPastTokenExpiration() {
+        cache = cache(30);
+        OAuth2Response response = new OAuth2Response(true, "{\"active\": true}");
+        cache.put("token", response, TimeUnit.MILLISECONDS.toSeconds(NOW) + 70);
+
+        advance(65);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.getStale("token")).isSameAs(response);
+
+        advance(6);
+        assertThat(cache.getStale("token")).isNull();
+    }
+
+    @Test
+    public void shouldRefreshAheadHotEntries() {
+        List<String> refreshed = new ArrayList<>();
+        cache.refreshAhead(50, 2, refreshed::add);
+        cache.put("hot", new OAuth2Response(true, "{\"active\": true}"), null);
+        cache.put("cold", new OAuth2Response(true, "{\"active\": true}"), null);
+
+        advance(10);
+        cache.get("hot");
+        cache.get("hot");
+        assertThat(refreshed).isEmpty();
+
+        advance(25);
+        assertThat(cache.get("hot")).isNotNull();
+        assertThat(cache.get("hot")).isNotNull();
+        assertThat(cache.get("cold")).isNotNull();
+        assertThat(refreshed).containsExactly("hot");
+
+        cache.put("hot", new OAuth2Response(true, "{\"active\": true}"), null);
+        cache.get("hot");
+        cache.get("hot");
+        assertThat(refreshed).containsExactly("hot");
+    }
+
+    @Test
+    public void shouldStorePayloadsOffHeap() {
+        List<String> evicted = new ArrayList<>();
+        cache = cache(0, new OffHeapStore(80));
+        cache.onEviction(() -> evicted.add("evicted"));
+        cache.put("token", new OAuth2Response(true, "{\"active\": true, \"sub\": \"first\"}"), null);
+
+        OAuth2Response response = cache.get("token");
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getPayload()).isEqualTo("{\"active\": true, \"sub\": \"first\"}");
+
+        cache.put("other", new OAuth2Response(true, "{\"active\": true, \"sub\": \"second\"}"), null);
+        cache.put("another", new OAuth2Response(true, "{\"active\": true, \"sub\": \"third\"}"), null);
+        // evicted as soon as overwritten by the third payload, written at the start of the ring
+        assertThat(evicted).hasSize(1);
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.get("other")).isNotNull();
+        assertThat(cache.get("another")).isNotNull();
+        assertThat(evicted).hasSize(1);
+
+        advance(61);
+        assertThat(cache.get("another")).isNull();
+    }
+
+    @Test
+    public void shouldInvalidateIndexedEntries() throws Exception {
+        cache.indexClaims(new TokenHasher("secret"));
+        cache.put("token-1", new OAuth2Response(true, "{\"active\": true, \"sub\": \"alice\", \"client_id\": \"app\"}"), null);
+        cache.put("token-2", new OAuth2Response(true, "{\"active\": true, \"sub\": \"alice\", \"client_id\": \"other\"}"), null);
+        cache.put("token-3", new OAuth2Response(true, "{\"active\": true, \"sub\": \"bob\", \"client_id\": \"app\"}"), null);
+        cache.put("token-4", new OAuth2Response(true, "{\"active\": true, \"sub\": \"carol\"}"), null);
+
+        assertThat(cache.invalidateBySubject("alice")).isEqualTo(2);
+        assertThat(cache.get("token-1")).isNull();
+        assertThat(cache.get("token-2")).isNull();
+
+        assertThat(cache.invalidateByClientId("app")).isEqualTo(1);
+        assertThat(cache.get("token-3")).isNull();
+
+        byte[] sha256 = MessageDigest.getInstance("SHA-256").digest("token-4".getBytes(StandardCharsets.UTF_8));
+        assertThat(cache.invalidateByTokenHash(sha256)).isTrue();
+        assertThat(cache.get("token-4")).isNull();
+        assertThat(cache.invalidateBySubject("carol")).isZero();
+    }
+
+    @Test
+    public void shouldNotInvalidateWithoutIndex() {
+        cache.put("token", new OAuth2Response(true, "{\"active\": true, \"sub\": \"alice\"}"), null);
+
+        assertThat(cache.invalidateBySubject("alice")).isZero();
+        assertThat(cache.get("token")).isNotNull();
+    }
+
+    private IntrospectionCache cache(long staleIfError) {
+        return cache(staleIfError, null);
+    }
+
+    private IntrospectionCache cache(long staleIfError, OffHeapStore store) {
+        return new IntrospectionCache(100, 60, staleIfError, nanos::get, () -> NOW + TimeUnit.NANOSECONDS.toMillis(nanos.get()), store);
+    }
+
+    private void advance(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class OffHeapStoreTest {
+
+    private final OffHeapStore store = new OffHeapStore(100);
+
+    @Test
+    public void shouldReadStoredPayloads() {
+        OffHeapStore.Ref first = store.put("{\"sub\": \"jérôme\"}");
+        OffHeapStore.Ref second = store.put("{\"sub\": \"john\"}");
+
+        assertThat(store.get(first)).isEqualTo("{\"sub\": \"jérôme\"}");
+        assertThat(store.get(second)).isEqualTo("{\"sub\": \"john\"}");
+    }
+
+    @Test
+    public void shouldOverwriteOldestPayloadsOnceFull() {
+        OffHeapStore.Ref first = store.put("a".repeat(40));
+        OffHeapStore.Ref second = store.put("b".repeat(40));
+        OffHeapStore.Ref third = store.put("c".repeat(40));
+
+        assertThat(store.get(first)).isNull();
+        assertThat(store.get(second)).isEqualTo("b".repeat(40));
+        assertThat(store.get(third)).isEqualTo("c".repeat(40));
+
+        OffHeapStore.Ref fourth = store.put("d".repeat(30));
+        assertThat(store.get(second)).isNull();
+        assertThat(store.get(third)).isEqualTo("c".repeat(40));
+        assertThat(store.get(fourth)).isEqualTo("d".repeat(30));
+    }
+
+    @Test
+    public void shouldNotifyOverwrittenPayloads() {
+        List<OffHeapStore.Ref> overwritten = new ArrayList<>();
+        store.onOverwrite(overwritten::add);
+        TokenKey owner = TokenKey.of("token");
+
+        OffHeapStore.Ref first = store.put("a".repeat(40), owner);
+        store.put("b".repeat(40));
+        assertThat(overwritten).isEmpty();
+
+        store.put("c".repeat(40));
+        assertThat(overwritten).containsExactly(first);
+        assertThat(overwritten.get(0).owner()).isEqualTo(owner);
+    }
+
+    @Test
+    public void shouldRejectPayloadLargerThanCapacity() {
+        assertThat(store.put("a".repeat(101))).isNull();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class TokenHasherTest {
+
+    @Test
+    public void shouldHashTheSameTokenToTheSameKeyOnEveryNode() {
+        assertThat(new TokenHasher("secret").hash("token")).isEqualTo(new TokenHasher("secret").hash("token"));
+    }
+
+    @Test
+    public void shouldNotExposeTheToken() {
+        String key = new TokenHasher("secret").hash("xxxx-xxxx-xxxx-xxxx");
+
+        assertThat(key).doesNotContain("xxxx").hasSize(43);
+    }
+
+    @Test
+    public void shouldDependOnTheSecret() {
+        assertThat(new TokenHasher("secret").hash("token")).isNotEqualTo(new TokenHasher("other-secret").hash("token"));
+    }
+}
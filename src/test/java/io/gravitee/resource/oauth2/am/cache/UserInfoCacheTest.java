@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.am.configuration.UserInfoCacheOptions;
+import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class UserInfoCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private UserInfoCache cache;
+
+    @BeforeEach
+    public void init() {
+        UserInfoCacheOptions options = new UserInfoCacheOptions();
+        options.setEnabled(true);
+        options.setMaxWeight(10_000);
+        options.setTimeToLive(60);
+
+        cache = new UserInfoCache(options, nanos::get);
+    }
+
+    @Test
+    public void shouldExpireAfterTimeToLive() {
+        UserInfoResponse response = new UserInfoResponse(true, "{\"sub\": \"248289761001\"}");
+        cache.put("token", response);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertThat(cache.get("token")).isSameAs(response);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    public void shouldInvalidateIndexedEntries() throws Exception {
+        cache.indexClaims(new TokenHasher("secret"));
+        cache.put("token-1", new UserInfoResponse(true, "{\"sub\": \"alice\"}"));
+        cache.put("token-2", new UserInfoResponse(true, "{\"sub\": \"alice\"}"));
+        cache.put("token-3", new UserInfoResponse(true, "{\"sub\": \"bob\"}"));
+        cache.put("token-4", new UserInfoResponse(true, "{\"sub\": \"carol\"}"));
+
+        assertThat(cache.invalidateBySubject("alice")).isEqualTo(2);
+        assertThat(cache.get("token-1")).isNull();
+        assertThat(cache.get("token-2")).isNull();
+        assertThat(cache.get("token-3")).isNotNull();
+
+        byte[] sha256 = MessageDigest.getInstance("SHA-256").digest("token-4".getBytes(StandardCharsets.UTF_8));
+        assertThat(cache.invalidateByTokenHash(sha256)).isTrue();
+        assertThat(cache.get("token-4")).isNull();
+        assertThat(cache.get("token-3")).isNotNull();
+    }
+
+    @Test
+    public void shouldEvictByPayloadSize() {
+        String largePayload = "{\"sub\": \"" + "x".repeat(2_000) + "\"}";
+        for (int i = 0; i < 20; i++) {
+            cache.put("token-" + i, new UserInfoResponse(true, largePayload));
+        }
+
+        assertThat(cache.weight()).isLessThanOrEqualTo(10_000);
+        assertThat(cache.size()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void shouldKeepManySmallPayloads() {
+        for (int i = 0; i < 50; i++) {
+            cache.put("token-" + i, new UserInfoResponse(true, "{\"sub\": \"" + i + "\"}"));
+        }
+
+        assertThat(cache.size()).isEqualTo(50);
+    }
+
+    @Test
+    public void shouldStorePayloadsOffHeap() {
+        UserInfoCacheOptions options = new UserInfoCacheOptions();
+        options.setEnabled(true);
+        options.setMaxWeight(10_000);
+        options.setTimeToLive(60);
+        options.setOffHeapCapacity(1_000);
+        cache = new UserInfoCache(options, nanos::get);
+
+        cache.put("token", new UserInfoResponse(true, "{\"sub\": \"248289761001\"}"));
+        UserInfoResponse response = cache.get("token");
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getPayload()).isEqualTo("{\"sub\": \"248289761001\"}");
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    public void shouldHoldMorePayloadsOffHeapThanMaxWeight() {
+        UserInfoCacheOptions options = new UserInfoCacheOptions();
+        options.setEnabled(true);
+        options.setMaxWeight(10_000);
+        options.setTimeToLive(60);
+        options.setOffHeapCapacity(100_000);
+        cache = new UserInfoCache(options, nanos::get);
+
+        String largePayload = "{\"sub\": \"" + "x".repeat(2_000) + "\"}";
+        for (int i = 0; i < 20; i++) {
+            cache.put("token-" + i, new UserInfoResponse(true, largePayload));
+        }
+
+        // 40 KB of payloads, 4 times the on-heap bound
+        assertThat(cache.size()).isEqualTo(20);
+        assertThat(cache.weight()).isLessThanOrEqualTo(10_000);
+        for (int i = 0; i < 20; i++) {
+            assertThat(cache.get("token-" + i).getPayload()).isEqualTo(largePayload);
+        }
+    }
+
+    @Test
+    public void shouldEvictEntriesAsSoonAsTheirPayloadIsOverwritten() {
+        UserInfoCacheOptions options = new UserInfoCacheOptions();
+        options.setEnabled(true);
+        options.setMaxWeight(10_000);
+        options.setTimeToLive(60);
+        options.setOffHeapCapacity(5_000);
+        cache = new UserInfoCache(options, nanos::get);
+        AtomicInteger evicted = new AtomicInteger();
+        cache.onEviction(evicted::incrementAndGet);
+
+        String largePayload = "{\"sub\": \"" + "x".repeat(2_000) + "\"}";
+        for (int i = 0; i < 10; i++) {
+            cache.put("token-" + i, new UserInfoResponse(true, largePayload));
+        }
+
+        // evicted without being read
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(evicted.get()).isEqualTo(8);
+        assertThat(cache.get("token-0")).isNull();
+        assertThat(cache.get("token-9")).isNotNull();
+        assertThat(evicted.get()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.circuitbreaker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.am.configuration.CircuitBreakerOptions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final List<String> transitions = new ArrayList<>();
+
+    private CircuitBreakerOptions options;
+
+    @BeforeEach
+    public void init() {
+        options = new CircuitBreakerOptions();
+        options.setEnabled(true);
+        options.setFailureRateThreshold(50);
+        options.setSlowCallRateThreshold(80);
+        options.setSlowCallDurationThreshold(1000);
+        options.setSlidingWindowSize(10);
+        options.setMinimumNumberOfCalls(4);
+        options.setWaitDurationInOpenState(30);
+        options.setPermittedNumberOfCallsInHalfOpenState(2);
+    }
+
+    @Test
+    public void shouldStayClosedUnderThresholds() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        call(circuitBreaker, FAST, true);
+        for (int i = 0; i < 9; i++) {
+            call(circuitBreaker, FAST, false);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).isEmpty();
+    }
+
+    @Test
+    public void shouldNotEvaluateBeforeMinimumNumberOfCalls() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        for (int i = 0; i < 3; i++) {
+            call(circuitBreaker, FAST, true);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldOpenOnFailureRate() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        call(circuitBreaker, FAST, false);
+        call(circuitBreaker, FAST, false);
+        call(circuitBreaker, FAST, true);
+        call(circuitBreaker, FAST, true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    @Test
+    public void shouldOpenOnSlowCallRate() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, SLOW, false);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void shouldForgetOutcomesOutOfTheSlidingWindow() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        for (int i = 0; i < 3; i++) {
+            call(circuitBreaker, FAST, true);
+            call(circuitBreaker, FAST, false);
+            call(circuitBreaker, FAST, false);
+            call(circuitBreaker, FAST, false);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulProbes() {
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        advance(29);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+
+        advance(2);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, false);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    public void shouldOpenAgainAfterFailedProbes() {
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        advance(31);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+    }
+
+    @Test
+    public void shouldIgnoreLateOutcomesWhileOpen() {
+        CircuitBreaker circuitBreaker = openedCircuitBreaker();
+
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(options, nanos::get);
+        circuitBreaker.addListener((from, to) -> transitions.add(from + "->" + to));
+        return circuitBreaker;
+    }
+
+    private CircuitBreaker openedCircuitBreaker() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, FAST, true);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return circuitBreaker;
+    }
+
+    private void call(CircuitBreaker circuitBreaker, long duration, boolean failed) {
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.onResult(duration, failed);
+    }
+
+    private void advance(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
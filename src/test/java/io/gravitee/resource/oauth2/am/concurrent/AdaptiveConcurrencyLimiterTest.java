@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.am.configuration.ConcurrencyLimitOptions;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private ConcurrencyLimitOptions options;
+
+    @BeforeEach
+    public void init() {
+        options = new ConcurrencyLimitOptions();
+        options.setInitialLimit(10);
+        options.setMinLimit(2);
+        options.setMaxLimit(50);
+    }
+
+    @Test
+    public void shouldRejectCallsOverTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(options);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release();
+        assertThat(limiter.getInFlight()).isEqualTo(9);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void shouldGrowWhileLatencyIsSteady() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(options);
+
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter, RTT);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    public void shouldNotGrowWhileUnused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(options);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.onResult(RTT, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldShrinkWhenLatencyIncreases() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(options);
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, RTT);
+        }
+        int steadyLimit = limiter.getLimit();
+
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter, RTT * 10);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(steadyLimit / 2);
+    }
+
+    @Test
+    public void shouldAdoptSustainedLatencyAsBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(options);
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter, RTT);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            saturate(limiter, RTT * 10);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    public void shouldBackOffOnFailures() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(options);
+
+        limiter.tryAcquire();
+        limiter.onResult(RTT, true);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.onResult(RTT, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    /**
+     * Completes the calls of a limiter used at its limit.
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rtt) {
+        while (limiter.tryAcquire()) {}
+        while (limiter.getInFlight() > 0) {
+            limiter.onResult(rtt, false);
+        }
+    }
+}
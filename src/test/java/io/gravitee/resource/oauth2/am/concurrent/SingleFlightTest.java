@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.gateway.api.handler.Handler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void shouldCoalesceConcurrentCalls() {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<Handler<String>> pending = new AtomicReference<>();
+        List<String> results = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            singleFlight.execute(
+                "token",
+                results::add,
+                handler -> {
+                    calls.incrementAndGet();
+                    pending.set(handler);
+                }
+            );
+        }
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.size()).isEqualTo(1);
+
+        pending.get().handle("result");
+
+        assertThat(results).containsExactly("result", "result", "result", "result", "result");
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    public void shouldNotCoalesceCallsWithDifferentKeys() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("token-1", result -> {}, handler -> calls.incrementAndGet());
+        singleFlight.execute("token-2", result -> {}, handler -> calls.incrementAndGet());
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRunANewCallOnceThePreviousOneIsCompleted() {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> results = new ArrayList<>();
+
+        singleFlight.execute("token", results::add, handler -> handler.handle("result-" + calls.incrementAndGet()));
+        singleFlight.execute("token", results::add, handler -> handler.handle("result-" + calls.incrementAndGet()));
+
+        assertThat(results).containsExactly("result-1", "result-2");
+    }
+
+    @Test
+    public void shouldNotifyOtherWaitersWhenOneFails() {
+        AtomicReference<Handler<String>> pending = new AtomicReference<>();
+        List<String> results = new ArrayList<>();
+
+        singleFlight.execute(
+            "token",
+            result -> {
+                throw new IllegalStateException("boom");
+            },
+            pending::set
+        );
+        singleFlight.execute("token", results::add, pending::set);
+
+        pending.get().handle("result");
+
+        assertThat(results).containsExactly("result");
+    }
+
+    @Test
+    public void shouldKeepTheCallWhileAWaiterRemains() {
+        Cancellation cancellation = new Cancellation();
+        AtomicReference<Cancellation> flightCancellation = new AtomicReference<>();
+        AtomicReference<Handler<String>> pending = new AtomicReference<>();
+        List<String> results = new ArrayList<>();
+
+        singleFlight.execute(
+            "token",
+            cancellation,
+            result -> results.add("cancelled-" + result),
+            (callCancellation, handler) -> {
+                flightCancellation.set(callCancellation);
+                pending.set(handler);
+            }
+        );
+        singleFlight.execute("token", null, results::add, (callCancellation, handler) -> pending.set(handler));
+
+        cancellation.cancel();
+
+        assertThat(flightCancellation.get().isCancelled()).isFalse();
+        assertThat(singleFlight.size()).isEqualTo(1);
+
+        pending.get().handle("result");
+
+        assertThat(results).containsExactly("result");
+    }
+
+    @Test
+    public void shouldCancelTheCallOnceAllWaitersAreCancelled() {
+        Cancellation first = new Cancellation();
+        Cancellation second = new Cancellation();
+        AtomicReference<Cancellation> flightCancellation = new AtomicReference<>();
+        AtomicReference<Handler<String>> pending = new AtomicReference<>();
+        List<String> results = new ArrayList<>();
+
+        singleFlight.execute(
+            "token",
+            first,
+            results::add,
+            (callCancellation, handler) -> {
+                flightCancellation.set(callCancellation);
+                pending.set(handler);
+            }
+        );
+        singleFlight.execute("token", second, results::add, (callCancellation, handler) -> pending.set(handler));
+
+        first.cancel();
+        second.cancel();
+
+        assertThat(flightCancellation.get().isCancelled()).isTrue();
+        assertThat(singleFlight.size()).isZero();
+
+        pending.get().handle("result");
+
+        assertThat(results).isEmpty();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.am.configuration.LoadBalancingOptions;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class EndpointGroupTest {
+
+    private final AtomicLong nanos = new AtomicLong(1);
+
+    @Test
+    public void shouldPreferLocalZone() {
+        Endpoint local = endpoint("local", "eu-west");
+        Endpoint remote = endpoint("remote", "us-east");
+        EndpointGroup group = new EndpointGroup(List.of(remote, local), options(LoadBalancingOptions.Strategy.LEAST_OUTSTANDING_REQUESTS));
+
+        for (int i = 0; i < 10; i++) {
+            local.onRequest();
+            assertThat(group.select()).isSameAs(local);
+        }
+    }
+
+    @Test
+    public void shouldFailoverToOtherZones() {
+        Endpoint local = endpoint("local", "eu-west");
+        Endpoint remote = endpoint("remote", "us-east");
+        EndpointGroup group = new EndpointGroup(List.of(remote, local), options(LoadBalancingOptions.Strategy.LEAST_OUTSTANDING_REQUESTS));
+
+        local.onHealthCheck(false, 1, 1);
+
+        assertThat(group.select()).isSameAs(remote);
+
+        local.onHealthCheck(true, 1, 1);
+
+        assertThat(group.select()).isSameAs(local);
+    }
+
+    @Test
+    public void shouldUseUnhealthyEndpointsWhenNoneIsHealthy() {
+        Endpoint endpoint = endpoint("only", null);
+        EndpointGroup group = new EndpointGroup(List.of(endpoint), options(LoadBalancingOptions.Strategy.LEAST_OUTSTANDING_REQUESTS));
+
+        endpoint.onHealthCheck(false, 1, 1);
+
+        assertThat(group.select()).isSameAs(endpoint);
+    }
+
+    @Test
+    public void shouldSkipUnhealthyEndpoints() {
+        Endpoint first = endpoint("first", null);
+        Endpoint second = endpoint("second", null);
+        Endpoint third = endpoint("third", null);
+        EndpointGroup group = new EndpointGroup(List.of(first, second, third), new LoadBalancingOptions());
+
+        first.onHealthCheck(false, 1, 1);
+        second.onHealthCheck(false, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(group.select()).isSameAs(third);
+        }
+    }
+
+    @Test
+    public void shouldSelectLeastOutstandingRequests() {
+        Endpoint busy = endpoint("busy", null);
+        Endpoint idle = endpoint("idle", null);
+        EndpointGroup group = new EndpointGroup(List.of(busy, idle), options(LoadBalancingOptions.Strategy.LEAST_OUTSTANDING_REQUESTS));
+
+        busy.onRequest();
+        busy.onRequest();
+
+        assertThat(group.select()).isSameAs(idle);
+    }
+
+    @Test
+    public void shouldSelectLowestLatency() {
+        Endpoint slow = endpoint("slow", null);
+        Endpoint fast = endpoint("fast", null);
+        EndpointGroup group = new EndpointGroup(List.of(slow, fast), options(LoadBalancingOptions.Strategy.EWMA_LATENCY));
+
+        slow.onResult(TimeUnit.MILLISECONDS.toNanos(200), false);
+        fast.onResult(TimeUnit.MILLISECONDS.toNanos(20), false);
+
+        assertThat(group.select()).isSameAs(fast);
+
+        // the fast endpoint is now loaded enough to be more expensive than the slow one
+        for (int i = 0; i < 10; i++) {
+            fast.onRequest();
+        }
+
+        assertThat(group.select()).isSameAs(slow);
+    }
+
+    @Test
+    public void shouldPenalizeFailures() {
+        Endpoint failing = endpoint("failing", null);
+        Endpoint healthy = endpoint("healthy", null);
+        EndpointGroup group = new EndpointGroup(List.of(failing, healthy), options(LoadBalancingOptions.Strategy.EWMA_LATENCY));
+
+        failing.onResult(TimeUnit.MILLISECONDS.toNanos(1), true);
+        healthy.onResult(TimeUnit.MILLISECONDS.toNanos(50), false);
+
+        assertThat(group.select()).isSameAs(healthy);
+    }
+
+    @Test
+    public void shouldDecayLatencyOverTime() {
+        Endpoint endpoint = endpoint("endpoint", null);
+
+        endpoint.onResult(TimeUnit.MILLISECONDS.toNanos(500), false);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        endpoint.onResult(TimeUnit.MILLISECONDS.toNanos(10), false);
+
+        assertThat(endpoint.getLatency()).isLessThan(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    private Endpoint endpoint(String name, String zone) {
+        return new Endpoint("http://" + name, zone, null, "/", nanos::get);
+    }
+
+    private static LoadBalancingOptions options(LoadBalancingOptions.Strategy strategy) {
+        LoadBalancingOptions options = new LoadBalancingOptions();
+        options.setStrategy(strategy);
+        options.setZone("eu-west");
+        return options;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import io.gravitee.resource.oauth2.am.configuration.HedgingOptions;
+import io.vertx.core.Vertx;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class HedgedRequestTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    public void init() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void close() {
+        vertx.close();
+    }
+
+    @Test
+    public void shouldRecordLatencyOfWinningHedgeFromFirstRequest() throws Exception {
+        HedgingOptions options = new HedgingOptions();
+        options.setDelay(200);
+        options.setBudget(100);
+        HedgingPolicy policy = spy(new HedgingPolicy(options));
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        HedgedRequest.<String>execute(
+            vertx,
+            policy,
+            (hedge, onRequest, onResult) -> {
+                // the first request never answers
+                if (hedge) {
+                    onResult.handle("hedge");
+                }
+            },
+            value -> false,
+            result::complete
+        );
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("hedge");
+        verify(policy).recordLatency(longThat(latency -> latency >= TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+}
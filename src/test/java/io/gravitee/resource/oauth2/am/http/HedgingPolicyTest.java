@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.am.configuration.HedgingOptions;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class HedgingPolicyTest {
+
+    @Test
+    public void shouldUseFixedDelay() {
+        HedgingOptions options = new HedgingOptions();
+        options.setDelay(50);
+
+        assertThat(new HedgingPolicy(options).delay()).isEqualTo(50);
+    }
+
+    @Test
+    public void shouldWaitForObservedPercentile() {
+        HedgingPolicy policy = new HedgingPolicy(new HedgingOptions());
+        assertThat(policy.delay()).isEqualTo(-1);
+
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        // the percentile of the 64 first latencies
+        assertThat(policy.delay()).isEqualTo(61);
+
+        for (int i = 1; i <= 156; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(1000));
+        }
+        assertThat(policy.delay()).isEqualTo(1000);
+    }
+
+    @Test
+    public void shouldBoundHedgesToBudget() {
+        HedgingOptions options = new HedgingOptions();
+        options.setBudget(10);
+        HedgingPolicy policy = new HedgingPolicy(options);
+
+        int hedges = 0;
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest();
+            if (policy.tryAcquireHedge()) {
+                hedges++;
+            }
+        }
+
+        assertThat(hedges).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldBoundHedgeBurst() {
+        HedgingOptions options = new HedgingOptions();
+        options.setBudget(50);
+        HedgingPolicy policy = new HedgingPolicy(options);
+
+        for (int i = 0; i < 1000; i++) {
+            policy.onRequest();
+        }
+
+        int hedges = 0;
+        while (policy.tryAcquireHedge()) {
+            hedges++;
+        }
+        assertThat(hedges).isEqualTo(10);
+    }
+}
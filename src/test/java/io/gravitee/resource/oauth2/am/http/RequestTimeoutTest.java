@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Vertx;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RequestTimeoutTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    public void init() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void close() {
+        vertx.close();
+    }
+
+    @Test
+    public void shouldRunCompletionOfTheResultCompletingTheCall() {
+        List<String> results = new CopyOnWriteArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+        RequestTimeout<String> timeout = new RequestTimeout<>(vertx, 0, null, Throwable::getMessage, results::add);
+
+        timeout.handle("first", completions::incrementAndGet);
+        timeout.handle("second", completions::incrementAndGet);
+
+        assertThat(results).containsExactly("first");
+        assertThat(completions).hasValue(1);
+    }
+
+    @Test
+    public void shouldNotRunCompletionOfAResultReceivedOnceExpired() throws Exception {
+        List<String> results = new CopyOnWriteArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+        CountDownLatch expired = new CountDownLatch(1);
+        RequestTimeout<String> timeout = new RequestTimeout<>(
+            vertx,
+            10,
+            null,
+            throwable -> throwable instanceof TimeoutException ? "timeout" : "failure",
+            result -> {
+                results.add(result);
+                expired.countDown();
+            }
+        );
+
+        assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        timeout.handle("late", completions::incrementAndGet);
+
+        assertThat(results).containsExactly("timeout");
+        assertThat(completions).hasValue(0);
+    }
+}
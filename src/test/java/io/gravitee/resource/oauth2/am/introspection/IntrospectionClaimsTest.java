@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.introspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class IntrospectionClaimsTest {
+
+    @Test
+    public void shouldExtractWellKnownClaims() {
+        IntrospectionClaims claims = IntrospectionClaims.parse(
+            Buffer.buffer(
+                "{\"custom\": {\"nested\": [1, {\"active\": false}]}, \"active\": true, \"exp\": 1700000000, " +
+                "\"scope\": \"read  write\", \"client_id\": \"my-client\", \"sub\": \"user\", \"roles\": [\"admin\"]}"
+            )
+        );
+
+        assertThat(claims.isActive()).isTrue();
+        assertThat(claims.getExpiration()).isEqualTo(1700000000L);
+        assertThat(claims.getScope()).isEqualTo("read  write");
+        assertThat(claims.getScopes()).containsExactly("read", "write");
+        assertThat(claims.getClientId()).isEqualTo("my-client");
+        assertThat(claims.getSubject()).isEqualTo("user");
+    }
+
+    @Test
+    public void shouldDecodeOtherClaimsLazily() {
+        IntrospectionClaims claims = IntrospectionClaims.parse(Buffer.buffer("{\"active\": true, \"roles\": [\"admin\"]}"));
+
+        assertThat(claims.get("active")).isEqualTo(true);
+        assertThat(claims.get("exp")).isNull();
+        assertThat(claims.getScopes()).isEmpty();
+        assertThat(claims.get("roles").toString()).isEqualTo("[\"admin\"]");
+        assertThat(claims.asJsonObject()).isSameAs(claims.asJsonObject());
+    }
+
+    @Test
+    public void shouldIgnoreClaimsOfUnexpectedType() {
+        IntrospectionClaims claims = IntrospectionClaims.parse(
+            Buffer.buffer("{\"active\": \"true\", \"exp\": \"tomorrow\", \"sub\": {\"id\": 1}}")
+        );
+
+        assertThat(claims.isActive()).isFalse();
+        assertThat(claims.getExpiration()).isNull();
+        assertThat(claims.getSubject()).isNull();
+    }
+
+    @Test
+    public void shouldRejectNonObjectPayload() {
+        assertThatThrownBy(() -> IntrospectionClaims.parse(Buffer.buffer("user"))).isInstanceOf(DecodeException.class);
+        assertThatThrownBy(() -> IntrospectionClaims.parse(Buffer.buffer("[]"))).isInstanceOf(DecodeException.class);
+    }
+
+    @Test
+    public void shouldRejectIncompletePayload() {
+        // truncated once the well-known claims have all been read
+        Buffer truncated = Buffer.buffer(
+            "{\"active\": true, \"exp\": 1700000000, \"scope\": \"read\", \"client_id\": \"my-client\", \"sub\": \"user\", " +
+            "\"roles\": [\"adm"
+        );
+        assertThatThrownBy(() -> IntrospectionClaims.parse(truncated)).isInstanceOf(DecodeException.class);
+        assertThatThrownBy(() -> IntrospectionClaims.parse(Buffer.buffer("{\"active\": true"))).isInstanceOf(DecodeException.class);
+        assertThatThrownBy(() -> IntrospectionClaims.parse(Buffer.buffer("{\"active\": true} {\"active\": false}")))
+            .isInstanceOf(DecodeException.class);
+    }
+
+    @Test
+    public void shouldDecodePayloadOnDemand() {
+        Buffer body = Buffer.buffer("{\"active\": true, \"exp\": 1700000000}");
+        IntrospectionResponse response = new IntrospectionResponse(true, body, null);
+
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getClaims().getExpiration()).isEqualTo(1700000000L);
+        assertThat(response.getPayload()).isEqualTo("{\"active\": true, \"exp\": 1700000000}");
+        // not kept alongside the body
+        assertThat(response.getPayload()).isNotSameAs(response.getPayload()).isEqualTo(response.getPayload());
+    }
+}
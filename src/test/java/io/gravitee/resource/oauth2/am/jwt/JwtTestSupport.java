@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.jwt;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Generates keys, JWKS and signed JWT for tests.
+ *
+ * @author GraviteeSource Team
+ */
+public class JwtTestSupport {
+
+    public static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    public static KeyPair ecKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    public static JsonObject rsaJwks(String kid, KeyPair keyPair) {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        JsonObject jwk = new JsonObject()
+            .put("kty", "RSA")
+            .put("use", "sig")
+            .put("kid", kid)
+            .put("n", encode(publicKey.getModulus()))
+            .put("e", encode(publicKey.getPublicExponent()));
+        return new JsonObject().put("keys", new JsonArray().add(jwk));
+    }
+
+    public static String sign(String algorithm, String kid, PrivateKey privateKey, JsonObject claims) throws Exception {
+        return sign(algorithm, kid, "at+jwt", privateKey, claims);
+    }
+
+    /**
+     * Signs an ID token, whose claims are those of an access token issued to the same client.
+     */
+    public static String signIdToken(String algorithm, String kid, PrivateKey privateKey, JsonObject claims) throws Exception {
+        return sign(algorithm, kid, "JWT", privateKey, claims.copy().put("nonce", "n-0S6_WzA2Mj").put("auth_time", claims.getLong("iat")));
+    }
+
+    public static String sign(String algorithm, String kid, String type, PrivateKey privateKey, JsonObject claims) throws Exception {
+        JsonObject header = new JsonObject().put("alg", algorithm).put("typ", type);
+        if (kid != null) {
+            header.put("kid", kid);
+        }
+        String signingInput =
+            encode(header.encode().getBytes(StandardCharsets.UTF_8)) + "." + encode(claims.encode().getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = switch (algorithm) {
+            case "RS256" -> Signature.getInstance("SHA256withRSA");
+            case "ES256" -> Signature.getInstance("SHA256withECDSAinP1363Format");
+            default -> throw new IllegalArgumentException(algorithm);
+        };
+        signature.initSign(privateKey);
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+
+        return signingInput + "." + encode(signature.sign());
+    }
+
+    public static JsonObject claims(String issuer, long expiration) {
+        return new JsonObject()
+            .put("sub", "248289761001")
+            .put("aud", "my-client")
+            .put("iss", issuer)
+            .put("iat", System.currentTimeMillis() / 1000)
+            .put("exp", expiration)
+            .put("scope", "openid profile");
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return encode(bytes);
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
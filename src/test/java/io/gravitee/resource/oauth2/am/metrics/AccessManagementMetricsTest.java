@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.resource.oauth2.am.metrics.AccessManagementMetrics.Operation;
+import io.gravitee.resource.oauth2.am.metrics.AccessManagementMetrics.Outcome;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.ConnectTimeoutException;
+import io.vertx.core.http.StreamResetException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class AccessManagementMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AccessManagementMetrics metrics = new AccessManagementMetrics(registry, "domain", "V2_X");
+
+    @Test
+    public void shouldRecordCallsByOperationAndOutcome() {
+        metrics.recordCall(Operation.INTROSPECT, TimeUnit.MILLISECONDS.toNanos(20), Outcome.ACTIVE);
+        metrics.recordCall(Operation.INTROSPECT, TimeUnit.MILLISECONDS.toNanos(40), Outcome.INACTIVE);
+        metrics.recordRejectedCall(Operation.USERINFO, Outcome.CIRCUIT_OPEN);
+
+        assertThat(
+            registry
+                .get(AccessManagementMetrics.CALLS)
+                .tags("operation", "introspect", "security_domain", "domain", "am_version", "V2_X")
+                .timer()
+                .count()
+        )
+            .isEqualTo(2);
+        assertThat(outcome("introspect", "active")).isEqualTo(1);
+        assertThat(outcome("introspect", "inactive")).isEqualTo(1);
+        assertThat(outcome("userinfo", "circuit_open")).isEqualTo(1);
+        assertThat(registry.get(AccessManagementMetrics.CALLS).tags("operation", "userinfo").timer().count()).isZero();
+    }
+
+    @Test
+    public void shouldTrackCallsInFlight() {
+        LongTaskTimer.Sample first = metrics.startCall(Operation.INTROSPECT);
+        metrics.startCall(Operation.INTROSPECT);
+        first.stop();
+
+        assertThat(registry.get(AccessManagementMetrics.CALLS_IN_FLIGHT).tags("operation", "introspect").longTaskTimer().activeTasks())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldExposeConcurrencyLimit() {
+        AtomicInteger limit = new AtomicInteger(20);
+        Gauge gauge = metrics.registerConcurrencyLimit(limit::get);
+        limit.set(12);
+
+        assertThat(registry.get(AccessManagementMetrics.CONCURRENCY_LIMIT).tags("security_domain", "domain").gauge().value()).isEqualTo(12);
+
+        metrics.remove(gauge);
+        assertThat(registry.find(AccessManagementMetrics.CONCURRENCY_LIMIT).gauge()).isNull();
+    }
+
+    @Test
+    public void shouldCountCacheLookups() {
+        metrics.recordCacheHit(AccessManagementMetrics.Cache.INTROSPECTION);
+        metrics.recordCacheMiss(AccessManagementMetrics.Cache.INTROSPECTION);
+        metrics.recordCacheMiss(AccessManagementMetrics.Cache.INTROSPECTION);
+        metrics.recordStaleHit();
+        metrics.recordCacheEviction(AccessManagementMetrics.Cache.USERINFO);
+
+        assertThat(cacheRequests("introspection", "hit")).isEqualTo(1);
+        assertThat(cacheRequests("introspection", "miss")).isEqualTo(2);
+        assertThat(cacheRequests("introspection", "stale")).isEqualTo(1);
+        assertThat(registry.get(AccessManagementMetrics.CACHE_EVICTIONS).tags("cache", "userinfo").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldClassifyFailures() {
+        assertThat(AccessManagementMetrics.failure(new StreamResetException(0, new TimeoutException()))).isEqualTo(Outcome.TIMEOUT);
+        assertThat(AccessManagementMetrics.failure(new ConnectTimeoutException())).isEqualTo(Outcome.TIMEOUT);
+        assertThat(AccessManagementMetrics.failure(new IOException("Connection reset"))).isEqualTo(Outcome.TRANSPORT_ERROR);
+    }
+
+    private double outcome(String operation, String outcome) {
+        return registry.get(AccessManagementMetrics.CALL_OUTCOMES).tags("operation", operation, "outcome", outcome).counter().count();
+    }
+
+    private double cacheRequests(String cache, String result) {
+        return registry.get(AccessManagementMetrics.CACHE_REQUESTS).tags("cache", cache, "result", result).counter().count();
+    }
+}
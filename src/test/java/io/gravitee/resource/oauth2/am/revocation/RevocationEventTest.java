@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.am.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RevocationEventTest {
+
+    @Test
+    public void shouldParseSingleEvent() {
+        assertThat(RevocationEvent.parse(Buffer.buffer("{\"type\": \"subject\", \"value\": \"alice\"}")))
+            .containsExactly(RevocationEvent.subject("alice"));
+    }
+
+    @Test
+    public void shouldParseEventsAndSkipUnknownOnes() {
+        Buffer body = Buffer.buffer(
+            "{\"cursor\": \"42\", \"events\": [" +
+            "{\"type\": \"token\", \"value\": \"xxx\"}, " +
+            "{\"type\": \"session\", \"value\": \"yyy\"}, " +
+            "{\"type\": \"client_id\"}, " +
+            "{\"type\": \"token_hash\", \"value\": \"zzz\"}, " +
+            "{\"type\": \"client_id\", \"value\": \"app\"}]}"
+        );
+
+        assertThat(RevocationEvent.parse(body))
+            .containsExactly(
+                RevocationEvent.token("xxx"),
+                new RevocationEvent(RevocationEvent.Type.TOKEN_HASH, "zzz"),
+                RevocationEvent.clientId("app")
+            );
+    }
+
+    @Test
+    public void shouldRejectInvalidBody() {
+        assertThatThrownBy(() -> RevocationEvent.parse(Buffer.buffer("[]"))).isInstanceOf(DecodeException.class);
+    }
+
+    @Test
+    public void shouldDispatchPushedEventsByName() {
+        List<RevocationEvent> received = new ArrayList<>();
+        WebhookRevocationSource source = new WebhookRevocationSource("test");
+        source.start(received::add);
+
+        assertThat(WebhookRevocationSource.receiver("test").receive(Buffer.buffer("{\"type\": \"subject\", \"value\": \"alice\"}")))
+            .isEqualTo(1);
+        WebhookRevocationSource.receiver("other").receive(RevocationEvent.subject("bob"));
+        source.stop();
+        WebhookRevocationSource.receiver("test").receive(RevocationEvent.subject("carol"));
+
+        assertThat(received).containsExactly(RevocationEvent.subject("alice"));
+    }
+}